@@ -27,6 +27,7 @@ plugins {
     id("com.gradle.plugin-publish") version "1.2.1"
     id("org.cadixdev.licenser") version "0.6.1"
     id("io.github.gradle-nexus.publish-plugin") version "1.1.0"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "org.ec4j.gradle"
@@ -64,6 +65,8 @@ dependencies {
     testCompileOnly(gradleTestKit())
     testCompileOnly("org.slf4j:slf4j-api:1.7.30")
     testCompileOnly("org.slf4j:slf4j-simple:1.7.30")
+
+    jmhImplementation(gradleApi())
 }
 
 gradlePlugin {
@@ -80,12 +83,47 @@ gradlePlugin {
     }
 }
 
+/*
+ * ./gradlew performanceTest [-Pperf.subprojects=50] [-Pperf.filesPerSubproject=2000] [-Pperf.fileSize=2048]
+ * Fails if the budgets in src/test/resources/performance-budgets.properties are exceeded
+ */
+val performanceTest by tasks.registering(Test::class) {
+    description = "Runs the TestKit performance regression tests."
+    group = LifecycleBasePlugin.VERIFICATION_GROUP
+    testClassesDirs = sourceSets.test.get().output.classesDirs
+    classpath = sourceSets.test.get().runtimeClasspath
+    listOf("perf.subprojects", "perf.filesPerSubproject", "perf.fileSize").forEach { key ->
+        providers.gradleProperty(key).orNull?.let { systemProperty(key, it) }
+    }
+    shouldRunAfter(tasks.test)
+}
+
 tasks.withType<Test> {
     testLogging {
         showStandardStreams = true
         exceptionFormat = TestExceptionFormat.FULL
     }
-    useJUnitPlatform()
+    useJUnitPlatform {
+        if (name == performanceTest.name) {
+            includeTags("performance")
+        } else {
+            excludeTags("performance")
+        }
+    }
+}
+
+/*
+ * ./gradlew jmh [-Pjmh.includes=<regexp>]
+ * The results are written to build/results/jmh/results.json so that they can be compared between commits
+ */
+jmh {
+    jmhVersion.set("1.37")
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+    profilers.add("gc")
+    resultFormat.set("JSON")
+    providers.gradleProperty("jmh.includes").orNull?.let { includes.add(it) }
 }
 
 java {
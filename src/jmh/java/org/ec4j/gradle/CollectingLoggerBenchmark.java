@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2018 EditorConfig Gradle Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ec4j.gradle;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+import org.ec4j.lint.api.Logger.LogLevel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the protocol passing the log messages from the workers to the task: collecting them in the worker,
+ * writing them to the result file and reading them back in the task.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class CollectingLoggerBenchmark {
+
+    @Param({ "1000", "100000" })
+    public int messageCount;
+
+    private Path dir;
+    private Path resultFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("editorconfig-jmh-");
+        resultFile = dir.resolve("result");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        SyntheticTree.delete(dir);
+    }
+
+    @Benchmark
+    public String writeRead(Blackhole blackhole) throws IOException {
+        final CollectingLogger log = new CollectingLogger(LogLevel.INFO, dir.resolve("result.spill"), 10000);
+        final Path file = Paths.get("src/main/java/org/example/App.java");
+        for (int i = 0; i < messageCount; i++) {
+            if (i % 10 == 0) {
+                log.warn("{}@{},{}: Delete 2 characters - violates trim_trailing_whitespace = true, reported by {}",
+                        file, i, 17, "org.ec4j.linters.TextLinter");
+            } else {
+                log.info("Processing file '{}'", file);
+            }
+            log.spillIfFull();
+        }
+        log.write(resultFile);
+        return CollectingLogger.read(resultFile, (level, message) -> blackhole.consume(message));
+    }
+
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2018 EditorConfig Gradle Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ec4j.gradle;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.ec4j.lint.api.Constants;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures the selection of the files to process, i.e. what Gradle does through {@code FileWalkerSpec} when
+ * fingerprinting the included files of the task on each run.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class FileWalkerBenchmark {
+
+    /**
+     * The number of the files walked, reported by JMH as files per second.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters {
+        public long files;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            files = 0;
+        }
+    }
+
+    /**
+     * The tree to walk.
+     */
+    @State(Scope.Benchmark)
+    public static class Tree {
+        @Param({ "10000" })
+        public int fileCount;
+
+        Path root;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            root = Files.createTempDirectory("editorconfig-jmh-");
+            SyntheticTree.generate(root, fileCount, 1024, SyntheticTree.SizeDistribution.FIXED, 0);
+            /* Some content to prune */
+            SyntheticTree.generate(root.resolve("build"), fileCount / 10, 1024, SyntheticTree.SizeDistribution.FIXED,
+                    0);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            SyntheticTree.delete(root);
+        }
+    }
+
+    private static final List<String> EXCLUDES = Collections.unmodifiableList(Arrays.asList("build/**", ".gradle/**"));
+
+    @Benchmark
+    public List<Path> walk(Tree tree, Counters counters) throws IOException {
+        final List<Path> result = new FileWalker(Collections.<String> emptyList(), EXCLUDES).walk(tree.root);
+        counters.files += result.size();
+        return result;
+    }
+
+    @Benchmark
+    public List<Path> walkDefaultExcludes(Tree tree, Counters counters) throws IOException {
+        final FileWalker walker = new FileWalker(Collections.<String> emptyList(), Constants.DEFAULT_EXCLUDES);
+        final List<Path> result = walker.walk(tree.root);
+        counters.files += result.size();
+        return result;
+    }
+
+}
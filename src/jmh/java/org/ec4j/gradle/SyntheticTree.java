@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2018 EditorConfig Gradle Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ec4j.gradle;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates a deterministic source tree for the benchmarks: a root {@code .editorconfig}, a nested
+ * {@code .editorconfig} in each top level directory and the given number of text files of the given size
+ * distribution, some lines of which have trailing whitespace.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+public class SyntheticTree {
+
+    /**
+     * How the file sizes are distributed around the mean.
+     */
+    public enum SizeDistribution {
+        /** All files have the mean size */
+        FIXED,
+        /** Many small files and a few large ones, as in most real trees */
+        EXPONENTIAL
+    }
+
+    private static final String[] EXTENSIONS = { "java", "txt", "md", "properties" };
+    private static final String LINE = "    final String value = \"Lorem ipsum dolor sit amet\"; // filler";
+    private static final int FILES_PER_DIR = 50;
+    private static final int DIRS_PER_TOP_LEVEL_DIR = 20;
+
+    /**
+     * Deletes the given directory recursively.
+     *
+     * @param root the directory to delete
+     * @throws IOException on I/O problems
+     */
+    public static void delete(Path root) throws IOException {
+        if (!Files.exists(root)) {
+            return;
+        }
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * Generates a new tree.
+     *
+     * @param root the directory to generate the tree in
+     * @param fileCount the number of files to generate, not counting the {@code .editorconfig} files
+     * @param meanFileSize the mean file size in bytes
+     * @param distribution the distribution of the file sizes
+     * @param violationDensity the probability of a line having trailing whitespace
+     * @return the absolute paths of the generated files, sorted
+     * @throws IOException on I/O problems
+     */
+    public static List<Path> generate(Path root, int fileCount, int meanFileSize, SizeDistribution distribution,
+            double violationDensity) throws IOException {
+        final Random random = new Random(42);
+        Files.createDirectories(root);
+        write(root.resolve(".editorconfig"), "root = true\n\n[*]\nend_of_line = lf\ntrim_trailing_whitespace = true\n"
+                + "insert_final_newline = true\nindent_style = space\nindent_size = 4\n");
+        final List<Path> result = new ArrayList<>(fileCount);
+        final StringBuilder content = new StringBuilder();
+        for (int i = 0; i < fileCount; i++) {
+            final int topLevelDir = i / (FILES_PER_DIR * DIRS_PER_TOP_LEVEL_DIR);
+            final Path dir = root.resolve("module" + topLevelDir).resolve("src/dir" + (i / FILES_PER_DIR));
+            if (i % (FILES_PER_DIR * DIRS_PER_TOP_LEVEL_DIR) == 0) {
+                Files.createDirectories(dir.getParent().getParent());
+                write(dir.getParent().getParent().resolve(".editorconfig"), "[*.md]\nindent_size = 2\n");
+            }
+            Files.createDirectories(dir);
+            final long size = distribution == SizeDistribution.FIXED ? meanFileSize
+                    : Math.round(-Math.log(1.0 - random.nextDouble()) * meanFileSize);
+            content.setLength(0);
+            while (content.length() < size) {
+                content.append(LINE);
+                if (random.nextDouble() < violationDensity) {
+                    content.append("  ");
+                }
+                content.append('\n');
+            }
+            final Path file = dir.resolve("file" + i + "." + EXTENSIONS[i % EXTENSIONS.length]);
+            write(file, content.toString());
+            result.add(file.toAbsolutePath());
+        }
+        Collections.sort(result);
+        return result;
+    }
+
+    private static void write(Path file, String content) throws IOException {
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private SyntheticTree() {
+    }
+}
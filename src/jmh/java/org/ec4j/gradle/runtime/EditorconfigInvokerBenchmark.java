@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2018 EditorConfig Gradle Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ec4j.gradle.runtime;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.ec4j.gradle.CollectingLogger;
+import org.ec4j.gradle.EditorconfigCheckTask;
+import org.ec4j.gradle.SyntheticTree;
+import org.ec4j.lint.api.Logger.LogLevel;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures a single non-incremental {@link EditorconfigInvoker} work item checking a synthetic tree, outside of
+ * Gradle. Run with {@code -prof gc} (the default in {@code build.gradle.kts}) to see the allocations; divide
+ * {@code gc.alloc.rate.norm} by {@link #fileCount} to get the allocations per file.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class EditorconfigInvokerBenchmark {
+
+    /**
+     * The number of the files and bytes checked, reported by JMH as files and bytes per second.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters {
+        public long bytes;
+        public long files;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+            files = 0;
+        }
+    }
+
+    /**
+     * Implements the given {@code type} of parameters as a dynamic proxy backed by the given {@code values}, so
+     * that the work action can be instantiated without Gradle.
+     */
+    private static <T> T parameters(Class<T> type, Map<String, Object> values) {
+        final ClassLoader cl = type.getClassLoader();
+        return type.cast(Proxy.newProxyInstance(cl, new Class<?>[] { type }, (proxy, method, args) -> {
+            final String key = method.getName();
+            return Proxy.newProxyInstance(cl, new Class<?>[] { method.getReturnType() }, (p, m, a) -> {
+                switch (m.getName()) {
+                case "get":
+                case "getOrNull":
+                    return values.get(key);
+                case "isPresent":
+                    return values.containsKey(key);
+                case "set":
+                    values.put(key, a[0]);
+                    return null;
+                default:
+                    throw new UnsupportedOperationException(m.toString());
+                }
+            });
+        }));
+    }
+
+    @Param({ "1000" })
+    public int fileCount;
+
+    @Param({ "FIXED", "EXPONENTIAL" })
+    public SyntheticTree.SizeDistribution fileSizeDistribution;
+
+    @Param({ "4096" })
+    public int meanFileSize;
+
+    @Param({ "0", "0.01" })
+    public double violationDensity;
+
+    private Set<String> files;
+    private Path root;
+    private long totalBytes;
+    private Path workDir;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("editorconfig-jmh-");
+        workDir = Files.createTempDirectory("editorconfig-jmh-work-");
+        final List<Path> paths = SyntheticTree.generate(root, fileCount, meanFileSize, fileSizeDistribution,
+                violationDensity);
+        files = new LinkedHashSet<>();
+        for (Path path : paths) {
+            files.add(path.toString());
+            totalBytes += Files.size(path);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        SyntheticTree.delete(root);
+        SyntheticTree.delete(workDir);
+    }
+
+    @Benchmark
+    public String check(Counters counters, Blackhole blackhole) throws IOException {
+        final Map<String, Object> values = new HashMap<>();
+        values.put("getTaskClass", EditorconfigCheckTask.class.getName());
+        values.put("getIncludedFiles", files);
+        values.put("getBasedirPath", root.toString());
+        values.put("getCharset", "UTF-8");
+        values.put("getFailOnFormatViolation", false);
+        values.put("getBackupSetDir", "");
+        values.put("getAddLintersFromClassPath", true);
+        values.put("getLinterIndexFile", workDir.resolve("linters.idx").toString());
+        values.put("getLinters", Collections.emptyList());
+        values.put("getLogLevel", LogLevel.WARN.name());
+        values.put("getParallelism", 1);
+        values.put("getLargeFileThreshold", 4L * 1024 * 1024);
+        values.put("getMaxFormatPasses", 10);
+        values.put("getIncremental", false);
+        values.put("getChangedFiles", Collections.emptySet());
+        values.put("getStateFile", workDir.resolve("state").toString());
+        values.put("getChunkStateFile", workDir.resolve("state.0").toString());
+        values.put("getResultFile", workDir.resolve("result.0").toString());
+        values.put("getTimingsFile", workDir.resolve("timings.0").toString());
+        values.put("getChangedLines", Collections.emptyMap());
+        final EditorconfigParameters parameters = parameters(EditorconfigParameters.class, values);
+
+        new EditorconfigInvoker(parameters) {
+            @Override
+            public EditorconfigParameters getParameters() {
+                return parameters;
+            }
+        }.execute();
+
+        counters.files += fileCount;
+        counters.bytes += totalBytes;
+        return CollectingLogger.read(workDir.resolve("result.0"), (level, message) -> blackhole.consume(message));
+    }
+
+}
@@ -17,23 +17,63 @@
 package org.ec4j.gradle;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.URISyntaxException;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.ToLongFunction;
 
-import org.ec4j.gradle.CollectingLogger.LogMessages;
+import org.ec4j.gradle.runtime.Backups;
 import org.ec4j.gradle.runtime.EditorconfigInvoker;
 import org.ec4j.gradle.runtime.EditorconfigParameters;
-import org.ec4j.lint.api.Constants;
+import org.ec4j.gradle.runtime.IncrementalState;
+import org.ec4j.gradle.runtime.IncrementalState.FileResult;
+import org.ec4j.gradle.runtime.Timings;
+import org.gradle.StartParameter;
 import org.gradle.api.DefaultTask;
 import org.gradle.api.GradleException;
 import org.gradle.api.Project;
-import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.file.Directory;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.FileCollection;
 import org.gradle.api.file.FileTree;
+import org.gradle.api.file.FileType;
+import org.gradle.api.file.RegularFile;
 import org.gradle.api.logging.LogLevel;
 import org.gradle.api.logging.Logger;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.provider.ProviderFactory;
+import org.gradle.api.tasks.Classpath;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.LocalState;
+import org.gradle.api.tasks.Nested;
+import org.gradle.api.tasks.Optional;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
 import org.gradle.api.tasks.TaskAction;
+import org.gradle.work.ChangeType;
+import org.gradle.work.FileChange;
+import org.gradle.work.Incremental;
+import org.gradle.work.InputChanges;
 import org.gradle.workers.WorkerExecutionException;
 import org.gradle.workers.WorkerExecutor;
 
@@ -44,51 +84,247 @@ import org.gradle.workers.WorkerExecutor;
  */
 public abstract class AbstractEditorconfigTask extends DefaultTask {
 
-    private final WorkerExecutor workerExecutor;
+    private static final String EDITORCONFIG_FILE_NAME = ".editorconfig";
 
     /**
-     * {@link FileTree} scanning boilerplate.
-     *
-     * @param project the project being built
-     * @param editorconfigExtension the config, cannot be null
-     * @return a {@link Set} of absolute paths of included files
+     * @param includedFiles the {@link FileTree} returned by {@link #getIncludedFiles()}; Gradle has walked it already
+     *        when fingerprinting the inputs of the task
+     * @return a sorted {@link Set} of absolute paths of included files
      */
-    private static Set<String> scanIncludedFiles(Project project, final EditorconfigExtension editorconfigExtension) {
-        FileTree tree = project.fileTree(project.getProjectDir(), fileTree -> {
-            fileTree.include(editorconfigExtension.getIncludes());
+    private static Set<String> includedPaths(FileTree includedFiles) {
+        final Set<String> result = new TreeSet<>();
+        for (File file : includedFiles.getFiles()) {
+            result.add(file.getAbsolutePath());
+        }
+        return result;
+    }
 
-            Set<String> excls = new LinkedHashSet<>(editorconfigExtension.getExcludes());
-            if (editorconfigExtension.isExcludeNonSourceFiles()) {
-                excls.addAll(Constants.DEFAULT_EXCLUDES);
+    /**
+     * @param project the project whose subprojects should be excluded
+     * @return exclude patterns for the directories of those subprojects of the given {@code project} that lie under
+     *         its directory; the subprojects process their files themselves
+     */
+    private static List<String> subprojectExcludes(Project project) {
+        final Path projectDir = project.getProjectDir().toPath().toAbsolutePath().normalize();
+        final List<String> result = new ArrayList<>();
+        for (Project subproject : project.getSubprojects()) {
+            final Path subprojectDir = subproject.getProjectDir().toPath().toAbsolutePath().normalize();
+            if (subprojectDir.startsWith(projectDir) && !subprojectDir.equals(projectDir)) {
+                result.add(projectDir.relativize(subprojectDir).toString().replace('\\', '/') + "/**");
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param projectDir the directory to start at
+     * @param rootDir the directory of the root project
+     * @return the {@code .editorconfig} files existing in the parent directories of the given {@code projectDir}, up
+     *         to the first one declaring {@code root = true} or up to the given {@code rootDir}, whichever comes first;
+     *         the files above the root project would make the inputs depend on where the build is checked out
+     */
+    private static List<File> ancestorEditorconfigFiles(File projectDir, File rootDir) {
+        final File absRootDir = rootDir.getAbsoluteFile();
+        final List<File> result = new ArrayList<>();
+        for (File dir = projectDir.getAbsoluteFile(); !dir.equals(absRootDir);) {
+            dir = dir.getParentFile();
+            if (dir == null) {
+                /* The project is not under the root project */
+                break;
+            }
+            final File editorconfigFile = new File(dir, EDITORCONFIG_FILE_NAME);
+            if (editorconfigFile.isFile()) {
+                result.add(editorconfigFile);
+                if (isRoot(editorconfigFile)) {
+                    break;
+                }
             }
-            fileTree.exclude(excls);
-        });
-        final Set<String> result = new LinkedHashSet<>();
-        for (File file : tree.getFiles()) {
-            result.add(file.getAbsolutePath());
         }
         return result;
     }
 
-    /** The {@link EditorconfigExtension} initialized in {@link #perform()} */
-    protected EditorconfigExtension editorconfigExtension;
+    /**
+     * @param editorconfigFile the {@code .editorconfig} file to read
+     * @return {@code true} if the given {@code editorconfigFile} declares {@code root = true} in its preamble
+     */
+    private static boolean isRoot(File editorconfigFile) {
+        try {
+            for (String line : Files.readAllLines(editorconfigFile.toPath(), StandardCharsets.UTF_8)) {
+                final String trimmed = line.trim();
+                if (trimmed.startsWith("[")) {
+                    return false;
+                }
+                final int eq = trimmed.indexOf('=');
+                if (eq > 0 && "root".equalsIgnoreCase(trimmed.substring(0, eq).trim())) {
+                    return "true".equalsIgnoreCase(trimmed.substring(eq + 1).trim());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read " + editorconfigFile, e);
+        }
+        return false;
+    }
+
+    /*
+     * Everything the task needs at execution time is captured here at configuration time, so that the task can be
+     * stored in and loaded from the configuration cache
+     */
+
+    private final Provider<Directory> backupsDir;
+
+    /** The {@link EditorconfigExtension} of the current project */
+    protected final EditorconfigExtension editorconfigExtension;
+
+    private final FileCollection editorconfigClasspath;
+
+    private final FileCollection editorconfigFiles;
+
+    /**
+     * The value of {@link #getIncludedFiles()}; it needs to be the same instance during the whole execution so that
+     * {@link InputChanges#getFileChanges(FileCollection)} can find it
+     */
+    private final FileTree includedFiles;
+
+    /** The directory where the linter indexes shared by all projects of the build are stored */
+    private final File linterIndexDir;
+
+    private final int maxWorkerCount;
+
+    private final File projectDir;
+
+    private final Provider<String> ratchetCommit;
+
+    private final Provider<RegularFile> reportFile;
+
+    private final Provider<RegularFile> stateFile;
+
+    private final Provider<RegularFile> timingsReportFile;
+
+    private final WorkerExecutor workerExecutor;
 
     protected AbstractEditorconfigTask(WorkerExecutor workerExecutor) {
         super();
         this.workerExecutor = workerExecutor;
+
+        final Project project = getProject();
+        final EditorconfigExtension ext = project.getExtensions().findByType(EditorconfigExtension.class);
+        this.editorconfigExtension = ext == null ? EditorconfigExtension.default_() : ext;
+        this.projectDir = project.getProjectDir();
+
+        final List<String> subprojectExcludes = subprojectExcludes(project);
+        final FileWalkerSpec includedFilesSpec = new FileWalkerSpec(projectDir, editorconfigExtension,
+                subprojectExcludes, false);
+        this.includedFiles = project.fileTree(projectDir, fileTree -> fileTree.include(includedFilesSpec));
+        /* The .editorconfig files of the subprojects apply only to the files of the subprojects */
+        final FileWalkerSpec editorconfigFilesSpec = new FileWalkerSpec(projectDir, editorconfigExtension,
+                subprojectExcludes, true);
+        this.editorconfigFiles = project.files(ancestorEditorconfigFiles(projectDir, project.getRootDir()),
+                project.fileTree(projectDir, fileTree -> fileTree.include(editorconfigFilesSpec)));
+        this.editorconfigClasspath = project.getConfigurations().getAt(EditorconfigGradlePlugin.CONFIGURATION_NAME);
+
+        final DirectoryProperty buildDir = project.getLayout().getBuildDirectory();
+        this.reportFile = buildDir.file("editorconfig/" + getName() + ".txt");
+        this.stateFile = buildDir.file("editorconfig/" + getName() + ".state");
+        this.timingsReportFile = buildDir.file("reports/editorconfig/" + getName() + "-timings.json");
+        this.backupsDir = buildDir.dir("editorconfig/backups");
+
+        final EditorconfigExtension extension = editorconfigExtension;
+        final ProviderFactory providers = project.getProviders();
+        this.ratchetCommit = providers.of(RatchetCommitSource.class, spec -> {
+            spec.getParameters().getProjectDir().set(projectDir.getAbsolutePath());
+            spec.getParameters().getRatchetFrom().set(providers.provider(extension::getRatchetFrom));
+        });
+
+        final StartParameter startParameter = project.getGradle().getStartParameter();
+        this.maxWorkerCount = startParameter.getMaxWorkerCount();
+        final File projectCacheDir = startParameter.getProjectCacheDir();
+        this.linterIndexDir = new File(projectCacheDir != null ? projectCacheDir : new File(project.getRootDir(),
+                ".gradle"), "editorconfig");
+    }
+
+    /**
+     * @return the {@link EditorconfigExtension} of the current project whose settings are inputs of this task
+     */
+    @Nested
+    public EditorconfigExtension getEditorconfigExtension() {
+        return editorconfigExtension;
+    }
+
+    /**
+     * @return the files selected by {@link EditorconfigExtension#getIncludes()} and
+     *         {@link EditorconfigExtension#getExcludes()} under the current project's directory
+     */
+    @Incremental
+    @InputFiles
+    @PathSensitive(PathSensitivity.RELATIVE)
+    public FileTree getIncludedFiles() {
+        return includedFiles;
+    }
+
+    /**
+     * @return all {@code .editorconfig} files that may define properties for {@link #getIncludedFiles()}: those
+     *         under the current project's directory and those in its parent directories
+     */
+    @InputFiles
+    @PathSensitive(PathSensitivity.RELATIVE)
+    public FileCollection getEditorconfigFiles() {
+        return editorconfigFiles;
+    }
+
+    /**
+     * @return the {@value EditorconfigGradlePlugin#CONFIGURATION_NAME} configuration whose content is used as a class
+     *         path for loading {@link org.ec4j.lint.api.Linter}s
+     */
+    @Classpath
+    public FileCollection getEditorconfigClasspath() {
+        return editorconfigClasspath;
+    }
+
+    /**
+     * @return the file to which the warnings and errors of the last successful run are written
+     */
+    @OutputFile
+    public Provider<RegularFile> getReportFile() {
+        return reportFile;
+    }
+
+    /**
+     * @return the JSON file to which the time spent per phase, per {@link org.ec4j.lint.api.Linter} class and in the
+     *         slowest files of the last run is written
+     */
+    @OutputFile
+    public Provider<RegularFile> getTimingsReportFile() {
+        return timingsReportFile;
+    }
+
+    /**
+     * @return the merge base of {@code HEAD} and {@link EditorconfigExtension#getRatchetFrom()}, if set. The set of
+     *         the processed files is computed against it, so it needs to be an input.
+     */
+    @Input
+    @Optional
+    public Provider<String> getRatchetCommit() {
+        return ratchetCommit;
+    }
+
+    /**
+     * @return the file where the per-file results are kept between runs so that only added and modified files need
+     *         to be processed
+     */
+    @LocalState
+    public Provider<RegularFile> getStateFile() {
+        return stateFile;
     }
 
     /**
      * Performs this task.
+     *
+     * @param inputChanges the changes of {@link #getIncludedFiles()} since the last run
      */
     @TaskAction
-    public void perform() {
+    public void perform(InputChanges inputChanges) {
+        final long start = System.nanoTime();
         final Logger log = getLogger();
-        final Project project = getProject();
-        editorconfigExtension = project.getExtensions().findByType(EditorconfigExtension.class);
-        if (editorconfigExtension == null) {
-            editorconfigExtension = EditorconfigExtension.default_();
-        }
 
         final Charset charset;
         if (editorconfigExtension.getEncoding() == null || editorconfigExtension.getEncoding().isEmpty()) {
@@ -99,67 +335,353 @@ public abstract class AbstractEditorconfigTask extends DefaultTask {
         } else {
             charset = Charset.forName(editorconfigExtension.getEncoding());
         }
-        final String basedirPath = project.getProjectDir().toPath().toString();
+        final String basedirPath = projectDir.toPath().toString();
 
-        final Set<String> includedPaths = scanIncludedFiles(project, editorconfigExtension);
+        final Timings timings = new Timings();
+        final Set<String> includedPaths = includedPaths(getIncludedFiles());
+        timings.addPhase(Timings.SCAN, System.nanoTime() - start);
+        final String ratchetFrom = editorconfigExtension.getRatchetFrom();
+        final Map<String, String> changedLines;
+        if (ratchetFrom != null) {
+            final int allCount = includedPaths.size();
+            includedPaths.retainAll(GitRatchet.changedFiles(projectDir.toPath(), ratchetFrom));
+            log.info("Processing {} out of {} files changed since {}", includedPaths.size(), allCount, ratchetFrom);
+            if (includedPaths.isEmpty()) {
+                readResults(Collections.<Path> emptyList());
+                writeTimings(timings, Collections.<Path> emptyList(), start);
+                return;
+            }
+            changedLines = editorconfigExtension.isRatchetChangedLinesOnly()
+                    ? GitRatchet.changedLines(projectDir.toPath(), ratchetFrom)
+                    : Collections.<String, String> emptyMap();
+        } else {
+            changedLines = Collections.emptyMap();
+        }
+        final Set<String> changedPaths = new LinkedHashSet<>();
+        final boolean incremental = inputChanges.isIncremental();
+        if (incremental) {
+            for (FileChange change : inputChanges.getFileChanges(getIncludedFiles())) {
+                if (change.getFileType() == FileType.FILE && change.getChangeType() != ChangeType.REMOVED) {
+                    changedPaths.add(change.getFile().getAbsolutePath());
+                }
+            }
+            log.info("Processing {} added or modified files out of {} files incrementally", changedPaths.size(),
+                    includedPaths.size());
+        }
 
-        final Configuration classpath = project.getConfigurations().getAt(EditorconfigGradlePlugin.CONFIGURATION_NAME);
+        final Path statePath = getStateFile().get().getAsFile().toPath();
+        final List<List<String>> chunks = FilePartitioner.partition(new ArrayList<>(includedPaths),
+                estimateWeights(includedPaths, statePath, projectDir.toPath()),
+                FilePartitioner.chunkCount(includedPaths.size(), maxWorkerCount));
+        if (chunks.size() > 1) {
+            log.info("Processing {} files in {} parallel chunks", includedPaths.size(), chunks.size());
+        }
 
-        workerExecutor
-                .classLoaderIsolation(spec -> spec.getClasspath().from(classpath))
-                .submit(
-                        EditorconfigInvoker.class,
-                        parameters -> configureInvokerParameters(parameters, includedPaths, basedirPath, charset)
-                );
+        final FileCollection classpath = getEditorconfigClasspath();
+        final Path linterIndexPath = linterIndexFile(linterIndexDir, classpath);
+        final Path backupsDir = this.backupsDir.get().getAsFile().toPath();
+        final Path backupSetDir = this instanceof EditorconfigFormatTask && editorconfigExtension.isBackup()
+                ? Backups.newSet(backupsDir)
+                : null;
 
+        final List<Path> chunkStatePaths = new ArrayList<>(chunks.size());
+        final List<Path> resultPaths = new ArrayList<>(chunks.size());
+        final List<Path> timingsPaths = new ArrayList<>(chunks.size());
+        for (int i = 0; i < chunks.size(); i++) {
+            final Set<String> chunkPaths = new LinkedHashSet<>(chunks.get(i));
+            final Set<String> chunkChangedPaths = new LinkedHashSet<>();
+            for (String changedPath : changedPaths) {
+                if (chunkPaths.contains(changedPath)) {
+                    chunkChangedPaths.add(changedPath);
+                }
+            }
+            final Map<String, String> chunkChangedLines = new HashMap<>();
+            for (Map.Entry<String, String> e : changedLines.entrySet()) {
+                if (chunkPaths.contains(e.getKey())) {
+                    chunkChangedLines.put(e.getKey(), e.getValue());
+                }
+            }
+            final Path chunkStatePath = statePath.resolveSibling(statePath.getFileName() + "." + i);
+            chunkStatePaths.add(chunkStatePath);
+            final Path resultPath = statePath.resolveSibling(getName() + ".result." + i);
+            deleteIfExists(resultPath);
+            resultPaths.add(resultPath);
+            final Path timingsPath = statePath.resolveSibling(getName() + ".timings." + i);
+            deleteIfExists(timingsPath);
+            timingsPaths.add(timingsPath);
+            workerExecutor
+                    .classLoaderIsolation(spec -> spec.getClasspath().from(classpath))
+                    .submit(
+                            EditorconfigInvoker.class,
+                            parameters -> configureInvokerParameters(parameters, chunkPaths, incremental,
+                                    chunkChangedPaths, basedirPath, charset, statePath, chunkStatePath,
+                                    linterIndexPath, resultPath, timingsPath, chunkChangedLines, backupSetDir)
+                    );
+        }
+
+        WorkerExecutionException workerFailure = null;
         try {
             workerExecutor.await();
         } catch (WorkerExecutionException e) {
+            workerFailure = e;
+        } finally {
+            mergeState(statePath, chunkStatePaths);
+            /* The work items create the backup set on the first actual rewrite */
+            if (backupSetDir != null && Files.isDirectory(backupSetDir)) {
+                log.info("Backed up the original content of the formatted files to {}", backupSetDir);
+                try {
+                    Backups.prune(backupsDir, editorconfigExtension.getBackupSetsToKeep());
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Could not prune the backup sets in " + backupsDir, e);
+                }
+            }
+        }
+
+        if (workerFailure != null) {
+            throw workerFailure;
+        }
+        for (Path resultPath : resultPaths) {
+            if (!Files.isRegularFile(resultPath)) {
+                throw new GradleException("No result received from " + EditorconfigInvoker.class.getName());
+            }
+        }
+
+        final String failureMessage = readResults(resultPaths);
+        writeTimings(timings, timingsPaths, start);
+        if (failureMessage != null) {
+            throw new GradleException(failureMessage);
+        }
+
+    }
+
+    /**
+     * Estimates how long it will take to process each of the given files so that the chunks submitted to the parallel
+     * workers take approximately the same time. The processing times recorded in the previous run are used where
+     * available. For the remaining files, the file size scaled by the average processing time per byte is used.
+     *
+     * @param paths the absolute paths of the files to process
+     * @param statePath the state file of the previous run
+     * @param basedir the current project's directory
+     * @return a function returning a weight for the given absolute path
+     */
+    private static ToLongFunction<String> estimateWeights(Set<String> paths, Path statePath, Path basedir) {
+        final IncrementalState previousState;
+        try {
+            previousState = IncrementalState.read(statePath);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read " + statePath, e);
+        }
+        final Map<String, Long> lengths = new HashMap<>();
+        final Map<String, Long> durations = new HashMap<>();
+        long knownBytes = 0;
+        long knownNanos = 0;
+        for (String path : paths) {
+            final long length = new File(path).length();
+            lengths.put(path, length);
+            final FileResult previous = previousState == null ? null
+                    : previousState.get(basedir.relativize(Paths.get(path)).toString());
+            if (previous != null && previous.getLength() == length) {
+                durations.put(path, previous.getDurationNanos());
+                knownBytes += length;
+                knownNanos += previous.getDurationNanos();
+            }
+        }
+        if (knownBytes == 0) {
+            return lengths::get;
+        }
+        final double nanosPerByte = (double) knownNanos / knownBytes;
+        return path -> {
+            final Long duration = durations.get(path);
+            return duration != null ? duration : (long) (lengths.get(path) * nanosPerByte);
+        };
+    }
+
+    /**
+     * The linters found on a class path depend only on the content of the class path. Hence the index of the linters
+     * can be shared by all projects of the build as long as its file name is derived from the class path.
+     *
+     * @param linterIndexDir the directory where the linter indexes are stored
+     * @param classpath the {@value EditorconfigGradlePlugin#CONFIGURATION_NAME} configuration
+     * @return the path of the file where the linters found on the given {@code classpath} are indexed
+     */
+    private static Path linterIndexFile(File linterIndexDir, FileCollection classpath) {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        final List<File> entries = new ArrayList<>(classpath.getFiles());
+        /* The linters bundled with this plugin are on the worker class path too */
+        final CodeSource pluginCodeSource = AbstractEditorconfigTask.class.getProtectionDomain().getCodeSource();
+        if (pluginCodeSource != null && "file".equals(pluginCodeSource.getLocation().getProtocol())) {
+            try {
+                entries.add(new File(pluginCodeSource.getLocation().toURI()));
+            } catch (URISyntaxException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        for (File entry : entries) {
+            final String key = entry.getAbsolutePath() + ':' + entry.length() + ':' + entry.lastModified() + '\n';
+            digest.update(key.getBytes(StandardCharsets.UTF_8));
+        }
+        final StringBuilder fingerprint = new StringBuilder();
+        for (byte b : digest.digest()) {
+            fingerprint.append(String.format("%02x", b));
+        }
+        return linterIndexDir.toPath().resolve("linters-" + fingerprint + ".idx");
+    }
 
-            /* A megahack to pass data from the classpath-isolated WorkerExecutor.
-             * Found no better way than to use some Exception defined in JDK
-             * and smuggle the data through its message field as a string.
-             * The serialization format is defined in CollectingLogger.
-             * Note that even the log messages need to be passed like that because
-             * loggers instantiated by the isolated class loader do not obey
-             * the log level set via Gradle CLI.
-             * @ppalaga is open for suggestions to improve this :)
-             */
-
-            Throwable t = e;
-            while (t.getCause() != null) {
-                t = t.getCause();
-                if (t instanceof RuntimeException) {
-                    final String msg = t.getMessage();
-                    if (msg != null && msg.startsWith(EditorconfigInvoker.FORMAT_EXCEPTION_PREFIX)) {
-                        final LogMessages logData = CollectingLogger
-                                .deserialize(EditorconfigInvoker.FORMAT_EXCEPTION_PREFIX.length(), msg);
-                        for (Entry<String, String> logMessage : logData.getMessages()) {
-                            final String key = logMessage.getKey();
-                            /* There is no TRACE in org.gradle.api.logging.LogLevel */
-                            final LogLevel logLevel = org.ec4j.lint.api.Logger.LogLevel.TRACE.name().equals(key)
-                                    ? LogLevel.DEBUG
-                                    : LogLevel.valueOf(key);
-                            log.log(logLevel, logMessage.getValue());
-                        }
-                        final String failureMessage = logData.getFailureMessage();
-                        if (failureMessage != null) {
-                            throw new GradleException(failureMessage);
-                        } else {
-                            return;
-                        }
+    /**
+     * Merges the per-chunk state files into the given {@code statePath}. Files whose chunk did not produce any state
+     * will simply be processed again in the next run.
+     *
+     * @param statePath the state file to write
+     * @param chunkStatePaths the per-chunk state files to read and delete
+     */
+    private static void mergeState(Path statePath, List<Path> chunkStatePaths) {
+        try {
+            final IncrementalState merged = new IncrementalState();
+            for (Path chunkStatePath : chunkStatePaths) {
+                final IncrementalState chunkState = IncrementalState.read(chunkStatePath);
+                if (chunkState != null) {
+                    merged.putAll(chunkState);
+                    Files.delete(chunkStatePath);
+                }
+            }
+            merged.write(statePath);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write " + statePath, e);
+        }
+    }
+
+    /**
+     * Reads the result files of the work items in the order of the files they processed, logs the messages and a
+     * summary over all work items and writes the warnings, errors and the failure message to {@link #getReportFile()}.
+     * The result files are deleted afterwards.
+     *
+     * @param resultPaths the result files of the work items
+     * @return the first failure message or {@code null} if the task should not fail
+     */
+    private String readResults(List<Path> resultPaths) {
+        final Logger log = getLogger();
+        final Path reportPath = getReportFile().get().getAsFile().toPath();
+        final boolean check = this instanceof EditorconfigCheckTask;
+        final ResultSummary summary = new ResultSummary(check ? editorconfigExtension.getMaxReportedViolations() : -1);
+        String failureMessage = null;
+        try {
+            Files.createDirectories(reportPath.getParent());
+            try (Writer out = Files.newBufferedWriter(reportPath, StandardCharsets.UTF_8)) {
+                final CollectingLogger.MessageConsumer consumer = (key, message) -> {
+                    /* There is no TRACE in org.gradle.api.logging.LogLevel */
+                    final LogLevel logLevel = org.ec4j.lint.api.Logger.LogLevel.TRACE.name().equals(key)
+                            ? LogLevel.DEBUG
+                            : LogLevel.valueOf(key);
+                    log.log(logLevel, message);
+                    if (logLevel == LogLevel.WARN || logLevel == LogLevel.ERROR) {
+                        out.write(key);
+                        out.write(' ');
+                        out.write(message);
+                        out.write('\n');
                     }
+                };
+                for (Path resultPath : resultPaths) {
+                    final String chunkFailureMessage = summary.read(resultPath, consumer);
+                    if (failureMessage == null) {
+                        failureMessage = chunkFailureMessage;
+                    }
+                    Files.delete(resultPath);
+                }
+                /* A subset of files selected by ratchetFrom may legitimately have no properties at all */
+                final String violationsMessage = summary.summarize(check,
+                        editorconfigExtension.isFailOnFormatViolation(),
+                        editorconfigExtension.isFailOnNoMatchingProperties()
+                                && editorconfigExtension.getRatchetFrom() == null,
+                        projectDir.toPath(), consumer);
+                if (failureMessage == null) {
+                    failureMessage = violationsMessage;
+                }
+                if (failureMessage != null) {
+                    out.write("FAILURE ");
+                    out.write(failureMessage);
+                    out.write('\n');
                 }
             }
-            throw e;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write " + reportPath, e);
         }
+        return failureMessage;
+    }
 
+    /**
+     * Merges the per-chunk {@link Timings} into the given {@code timings}, writes them to
+     * {@link #getTimingsReportFile()} and logs a summary. Warns about each file that did not stop changing within
+     * {@code maxFormatPasses}. The per-chunk files are deleted afterwards.
+     *
+     * @param timings the {@link Timings} recorded by this task
+     * @param timingsPaths the {@link Timings} files of the work items
+     * @param start the start of this task as returned by {@link System#nanoTime()}
+     */
+    private void writeTimings(Timings timings, List<Path> timingsPaths, long start) {
+        final Path reportPath = getTimingsReportFile().get().getAsFile().toPath();
+        try {
+            for (Path timingsPath : timingsPaths) {
+                final Timings chunkTimings = Timings.read(timingsPath);
+                if (chunkTimings != null) {
+                    timings.addAll(chunkTimings);
+                    Files.delete(timingsPath);
+                }
+            }
+            for (String file : timings.getUnsettledFiles()) {
+                getLogger().warn("File '{}' may still have violations after maxFormatPasses = {} passes", file,
+                        editorconfigExtension.getMaxFormatPasses());
+            }
+            final long wallNanos = System.nanoTime() - start;
+            timings.writeJson(reportPath, getName(), wallNanos);
+            getLogger().lifecycle("{}; see {}", timings.summary(wallNanos), reportPath.toUri());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write " + reportPath, e);
+        }
+    }
+
+    /**
+     * There is no TRACE in {@link LogLevel} and TRACE messages are logged at DEBUG by {@link #readResults(List)}. Hence
+     * the worker needs to collect TRACE messages if DEBUG is enabled. WARN and ERROR messages are always collected
+     * because they end up in {@link #getReportFile()} and in the incremental state regardless of the log level.
+     *
+     * @param log the {@link Logger} of this task
+     * @return the lowest {@link org.ec4j.lint.api.Logger.LogLevel} the worker needs to collect
+     */
+    private static org.ec4j.lint.api.Logger.LogLevel workerLogLevel(Logger log) {
+        if (log.isDebugEnabled()) {
+            return org.ec4j.lint.api.Logger.LogLevel.TRACE;
+        } else if (log.isInfoEnabled()) {
+            return org.ec4j.lint.api.Logger.LogLevel.INFO;
+        }
+        return org.ec4j.lint.api.Logger.LogLevel.WARN;
+    }
+
+    private static void deleteIfExists(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not delete " + path, e);
+        }
     }
 
     private void configureInvokerParameters(EditorconfigParameters editorconfigParameters,
                                             Set<String> includedPaths,
+                                            boolean incremental,
+                                            Set<String> changedPaths,
                                             String basedirPath,
-                                            Charset charset) {
+                                            Charset charset,
+                                            Path statePath,
+                                            Path chunkStatePath,
+                                            Path linterIndexPath,
+                                            Path resultPath,
+                                            Path timingsPath,
+                                            Map<String, String> changedLines,
+                                            Path backupSetDir) {
         final Class<?> taskClassName = AbstractEditorconfigTask.this.getClass();
 
         editorconfigParameters.getTaskClass().set(taskClassName.getName());
@@ -168,14 +690,23 @@ public abstract class AbstractEditorconfigTask extends DefaultTask {
         editorconfigParameters.getCharset().set(charset.name());
 
         editorconfigParameters.getFailOnFormatViolation().set(editorconfigExtension.isFailOnFormatViolation());
-        editorconfigParameters.getBackUp().set(editorconfigExtension.isBackup());
-        editorconfigParameters.getBackupSuffix().set(editorconfigExtension.getBackupSuffix());
+        editorconfigParameters.getBackupSetDir().set(backupSetDir == null ? "" : backupSetDir.toString());
         editorconfigParameters.getAddLintersFromClassPath().set(editorconfigExtension.isAddLintersFromClassPath());
+        editorconfigParameters.getLinterIndexFile().set(linterIndexPath.toString());
         editorconfigParameters.getLinters().set(editorconfigExtension.getLinters());
 
-        editorconfigParameters.getFailOnNoMatchingProperties().set(
-                editorconfigExtension.isFailOnNoMatchingProperties()
-        );
+        editorconfigParameters.getParallelism().set(editorconfigExtension.getParallelism());
+        editorconfigParameters.getLogLevel().set(workerLogLevel(getLogger()).name());
+        editorconfigParameters.getLargeFileThreshold().set(editorconfigExtension.getLargeFileThreshold());
+        editorconfigParameters.getMaxFormatPasses().set(editorconfigExtension.getMaxFormatPasses());
+
+        editorconfigParameters.getIncremental().set(incremental);
+        editorconfigParameters.getChangedFiles().set(changedPaths);
+        editorconfigParameters.getStateFile().set(statePath.toString());
+        editorconfigParameters.getChunkStateFile().set(chunkStatePath.toString());
+        editorconfigParameters.getResultFile().set(resultPath.toString());
+        editorconfigParameters.getTimingsFile().set(timingsPath.toString());
+        editorconfigParameters.getChangedLines().set(changedLines);
     }
 
 }
@@ -16,13 +16,18 @@
  */
 package org.ec4j.gradle;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
-import java.util.AbstractMap;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.TreeMap;
 
 import org.ec4j.gradle.runtime.EditorconfigInvoker;
 import org.ec4j.lint.api.Logger;
@@ -30,9 +35,8 @@ import org.ec4j.lint.api.Logger;
 /**
  * A {@link Logger} that collects the log messages in a {@link #messages} {@link List}. This class exists because the
  * SLF4J loggers instantiated by the isolated class loader inside {@link EditorconfigInvoker} do not obey the log level
- * set via Gradle CLI. Thus we collect the messages in a {@link List}, serialize them to {@link String} (see
- * {@link #serialize(Appendable)}), send them via and exception message to the caller context where we
- * {@link #deserialize(int, String)} them to {@link LogMessages}.
+ * set via Gradle CLI. Thus we collect the messages in a {@link List}, {@link #write(Path)} them to a result file and
+ * {@link #read(Path, MessageConsumer)} them back in the caller context.
  *
  * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
  * @since 0.0.3
@@ -40,145 +44,318 @@ import org.ec4j.lint.api.Logger;
 public class CollectingLogger extends Logger.AbstractLogger {
 
     /**
-     * An immutable {@link List} of log {@link #messages}, optionally with a {@link #failureMessage}.
+     * Receives the messages read by {@link CollectingLogger#read(Path, MessageConsumer)}.
      */
-    public static class LogMessages {
+    public interface MessageConsumer {
+        /**
+         * @param level the {@link LogLevel} name of the message
+         * @param message the message
+         * @throws IOException if the consumer fails to store the message
+         */
+        void accept(String level, String message) throws IOException;
 
-        private final String failureMessage;
-        private final List<Map.Entry<String, String>> messages;
+        /**
+         * Receives the messages logged by
+         * {@link CollectingLogger#violation(LogLevel, String, String, String, Object...)}. Passes the {@code message}
+         * to {@link #accept(String, String)} by default.
+         *
+         * @param level the {@link LogLevel} name of the message
+         * @param file the path of the file having the violation relative to the project directory
+         * @param linter the class name of the linter that found the violation
+         * @param message the message
+         * @throws IOException if the consumer fails to store the message
+         */
+        default void acceptViolation(String level, String file, String linter, String message) throws IOException {
+            accept(level, message);
+        }
+    }
 
-        LogMessages(List<Entry<String, String>> messages, String failureMessage) {
+    /**
+     * A log message that is formatted only when its value is requested for the first time.
+     */
+    static class Message implements Map.Entry<String, String> {
+        /**
+         * @param arg the argument to snapshot
+         * @return the given {@code arg} if it is known to be immutable, otherwise its {@link String} representation
+         *         at the time of logging
+         */
+        private static Object snapshot(Object arg) {
+            if (arg == null || arg instanceof String || arg instanceof Number || arg instanceof Boolean
+                    || arg instanceof Character || arg instanceof Enum || arg instanceof Path) {
+                return arg;
+            }
+            return String.valueOf(arg);
+        }
+
+        private Object[] args;
+        private final LogLevel level;
+        private String pattern;
+        private String value;
+
+        Message(LogLevel level, String pattern, Object[] args) {
             super();
-            this.messages = messages;
-            this.failureMessage = failureMessage;
+            this.level = level;
+            this.pattern = pattern;
+            final Object[] snapshot = new Object[args.length];
+            for (int i = 0; i < args.length; i++) {
+                snapshot[i] = snapshot(args[i]);
+            }
+            this.args = snapshot;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Map.Entry)) {
+                return false;
+            }
+            final Map.Entry<?, ?> other = (Map.Entry<?, ?>) obj;
+            return getKey().equals(other.getKey()) && getValue().equals(other.getValue());
+        }
+
+        @Override
+        public String getKey() {
+            return level.name();
         }
 
+        @Override
+        public synchronized String getValue() {
+            if (value == null) {
+                value = Slf4jFormatter.format(pattern, args);
+                pattern = null;
+                args = null;
+            }
+            return value;
+        }
+
+        @Override
+        public int hashCode() {
+            return getKey().hashCode() ^ getValue().hashCode();
+        }
+
+        @Override
+        public String setValue(String value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+    }
+
+    /**
+     * A log message reporting a single violation. The file and the linter it concerns are kept apart from the message
+     * so that the violations can be counted and limited without parsing the message.
+     */
+    public static class ViolationMessage implements Map.Entry<String, String> {
+        private final String file;
+        private final String linter;
+        private final Map.Entry<String, String> message;
+
         /**
-         * @return the failure message, can be {@code null} if the underlying task did not fail.
+         * @param file the path of the file having the violation relative to the project directory
+         * @param linter the class name of the linter that found the violation
+         * @param message the message {@link java.util.Map.Entry}; the key is a {@link LogLevel} name
          */
-        public String getFailureMessage() {
-            return failureMessage;
+        public ViolationMessage(String file, String linter, Map.Entry<String, String> message) {
+            super();
+            this.file = file;
+            this.linter = linter;
+            this.message = message;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof ViolationMessage)) {
+                return false;
+            }
+            final ViolationMessage other = (ViolationMessage) obj;
+            return file.equals(other.file) && linter.equals(other.linter) && getKey().equals(other.getKey())
+                    && getValue().equals(other.getValue());
         }
 
         /**
-         * @return an unmodifiable {@link List} of log message {@link Entry}s. Keys are {@link LogLevel}s and values are
-         *         the messages.
+         * @return the path of the file having the violation relative to the project directory
          */
-        public List<Map.Entry<String, String>> getMessages() {
-            return messages;
-        }
-    }
-
-    /**
-     * Parses the output of {@link CollectingLogger#serialize(Appendable)} to {@link LogMessages}.
-     */
-    static class Parser {
-
-        private static int unescape(int offset, String in, StringBuilder out) {
-            int i = offset;
-            while (i < in.length()) {
-                char ch = in.charAt(i++);
-                switch (ch) {
-                case '\n':
-                    return i;
-                case '\\':
-                    char ch1 = in.charAt(i++);
-                    switch (ch1) {
-                    case 'n':
-                        out.append('\n');
-                        break;
-                    case 'r':
-                        out.append('\r');
-                        break;
-                    case '\\':
-                        out.append('\\');
-                        break;
-                    default:
-                        throw new IllegalStateException("Unecpxpected escape sequence [\\" + ch1 + "]");
-                    }
-                    break;
-                default:
-                    out.append(ch);
-                }
-            }
-            return i;
+        public String getFile() {
+            return file;
         }
 
-        private String failureMessage = null;
+        @Override
+        public String getKey() {
+            return message.getKey();
+        }
 
-        private List<Map.Entry<String, String>> messages = new ArrayList<>();
+        /**
+         * @return the class name of the linter that found the violation
+         */
+        public String getLinter() {
+            return linter;
+        }
 
-        Parser() {
+        @Override
+        public String getValue() {
+            return message.getValue();
         }
 
-        private int entry(int offset, String in) {
-            final int spaceOffset = in.indexOf(' ', offset);
-            if (spaceOffset >= 0) {
-                final String key = in.substring(offset, spaceOffset);
-                final StringBuilder value = new StringBuilder();
-                final int lfOffset = unescape(spaceOffset + 1, in, value);
-                if (FAILURE.equals(key)) {
-                    if (this.failureMessage != null) {
-                        throw new IllegalStateException("Only one " + FAILURE + " expected");
-                    }
-                    this.failureMessage = value.toString();
-                } else {
-                    messages.add(new AbstractMap.SimpleImmutableEntry<>(key, value.toString()));
-                }
-                return lfOffset;
-            } else {
-                throw new IllegalStateException("Expected a key");
-            }
+        @Override
+        public int hashCode() {
+            return file.hashCode() ^ getKey().hashCode() ^ getValue().hashCode();
         }
 
-        LogMessages parse(int offset, String in) {
-            while ((offset = entry(offset, in)) < in.length()) {
-                /* empty */
-            }
-            List<Entry<String, String>> m = this.messages;
-            this.messages = null;
-            return new LogMessages(Collections.unmodifiableList(m), failureMessage);
+        @Override
+        public String setValue(String value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
         }
     }
 
-    private static final String FAILURE = "FAILURE";
+    private static final byte END = -1;
+
+    private static final LogLevel[] LEVELS = LogLevel.values();
+
+    private static final int VERSION = 3;
+
+    /** Precedes the records written for {@link ViolationMessage}s */
+    private static final byte VIOLATION = -2;
+
+    /**
+     * Reads a file written by {@link #write(Path)} and passes the messages to the given {@code consumer} one by one,
+     * so that the messages never need to be held in memory all at once.
+     *
+     * @param resultFile the file to read
+     * @param consumer the {@link MessageConsumer} to notify
+     * @return the failure message or {@code null} if the underlying task did not fail
+     * @throws IOException on I/O problems, including a truncated or foreign {@code resultFile}
+     */
+    public static String read(Path resultFile, MessageConsumer consumer) throws IOException {
+        return read(resultFile, consumer, null);
+    }
 
     /**
-     * Parse the {@code input} starting at {@code offset} to {@link LogMessages}.
+     * Reads a file written by {@link #write(Path)} and passes the messages to the given {@code consumer} one by one,
+     * so that the messages never need to be held in memory all at once.
      *
-     * @param offset the zero based index to start at the parsing in {@code input}
-     * @param input the string to parse
-     * @return new {@link LogMessages}
-     */
-    public static LogMessages deserialize(int offset, String input) {
-        return new Parser().parse(offset, input);
-    }
-
-    private static void escape(String string, Appendable out) throws IOException {
-        for (int i = 0; i < string.length(); i++) {
-            char ch = string.charAt(i);
-            switch (ch) {
-            case '\n':
-                out.append("\\n");
-                break;
-            case '\r':
-                out.append("\\r");
-                break;
-            case '\\':
-                out.append("\\\\");
-                break;
-            default:
-                out.append(ch);
+     * @param resultFile the file to read
+     * @param consumer the {@link MessageConsumer} to notify
+     * @param counts if not {@code null}, the {@link #count(String, long) counts} stored in the {@code resultFile} are
+     *        added to this {@link Map}
+     * @return the failure message or {@code null} if the underlying task did not fail
+     * @throws IOException on I/O problems, including a truncated or foreign {@code resultFile}
+     */
+    public static String read(Path resultFile, MessageConsumer consumer, Map<String, Long> counts)
+            throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(resultFile)))) {
+            final int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unexpected version " + version + " of " + resultFile);
+            }
+            byte level;
+            while ((level = in.readByte()) != END) {
+                if (level == VIOLATION) {
+                    final String violationLevel = LEVELS[in.readByte()].name();
+                    final String file = readString(in);
+                    final String linter = readString(in);
+                    consumer.acceptViolation(violationLevel, file, linter, readString(in));
+                } else {
+                    consumer.accept(LEVELS[level].name(), readString(in));
+                }
             }
+            final String failureMessage = in.readBoolean() ? readString(in) : null;
+            final int countsSize = in.readInt();
+            for (int i = 0; i < countsSize; i++) {
+                final String key = readString(in);
+                final long value = in.readLong();
+                if (counts != null) {
+                    counts.merge(key, value, Long::sum);
+                }
+            }
+            return failureMessage;
         }
     }
 
+    private static String readString(DataInputStream in) throws IOException {
+        final byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeString(String value, DataOutputStream out) throws IOException {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeMessages(List<Map.Entry<String, String>> messages, DataOutputStream out)
+            throws IOException {
+        for (Map.Entry<String, String> entry : messages) {
+            if (entry instanceof ViolationMessage) {
+                final ViolationMessage violation = (ViolationMessage) entry;
+                out.writeByte(VIOLATION);
+                out.writeByte(LogLevel.valueOf(violation.getKey()).ordinal());
+                writeString(violation.getFile(), out);
+                writeString(violation.getLinter(), out);
+            } else {
+                out.writeByte(LogLevel.valueOf(entry.getKey()).ordinal());
+            }
+            writeString(entry.getValue(), out);
+        }
+    }
+
+    private final Map<String, Long> counts = new TreeMap<>();
+
     private volatile String failureMessage;
 
+    private final int maxBufferedMessages;
+
     private final List<Map.Entry<String, String>> messages = new ArrayList<>();
 
+    private final Path spillFile;
+
+    private int spilledCount;
+
+    private DataOutputStream spillOut;
+
     public CollectingLogger(LogLevel level) {
+        this(level, null, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Creates a new {@link CollectingLogger} that keeps at most about {@code maxBufferedMessages} in memory. The
+     * older messages are moved to {@code spillFile} by {@link #spillIfFull()}.
+     *
+     * @param level the minimal {@link LogLevel} to collect
+     * @param spillFile the temporary file to move the older messages to; it is deleted by {@link #write(Path)}
+     * @param maxBufferedMessages the number of messages above which {@link #spillIfFull()} spills
+     */
+    public CollectingLogger(LogLevel level, Path spillFile, int maxBufferedMessages) {
         super(level);
+        this.spillFile = spillFile;
+        this.maxBufferedMessages = maxBufferedMessages;
+    }
+
+    /**
+     * Appends the given already formatted messages to {@link #messages}.
+     *
+     * @param entries the messages to append. Keys are {@link LogLevel}s and values are the messages.
+     */
+    public void append(List<Map.Entry<String, String>> entries) {
+        messages.addAll(entries);
+    }
+
+    /**
+     * Adds the given {@code delta} to the count stored under the given {@code key}. The counts of several result
+     * files can be summed up by {@link #read(Path, MessageConsumer, Map)}.
+     *
+     * @param key the name of the count
+     * @param delta the value to add
+     */
+    public synchronized void count(String key, long delta) {
+        counts.merge(key, delta, Long::sum);
     }
 
     /**
@@ -193,28 +370,125 @@ public class CollectingLogger extends Logger.AbstractLogger {
         this.failureMessage = failureMessage;
     }
 
-    /** {@inheritDoc} */
+    private int bufferIndex(int index) {
+        if (index < spilledCount) {
+            throw new IllegalStateException("Message " + index + " was spilled to " + spillFile + " already");
+        }
+        return index - spilledCount;
+    }
+
+    /**
+     * @param fromIndex the index of the first message to return, typically a value returned by {@link #size()} earlier
+     * @return a new {@link List} of the messages collected since the given {@code fromIndex}
+     */
+    public List<Map.Entry<String, String>> getMessages(int fromIndex) {
+        return new ArrayList<>(messages.subList(bufferIndex(fromIndex), messages.size()));
+    }
+
+    /**
+     * @param fromIndex the index of the first message to consider, typically a value returned by {@link #size()}
+     *        earlier
+     * @return a new {@link List} of the WARN and ERROR messages collected since the given {@code fromIndex}
+     */
+    public List<Map.Entry<String, String>> getWarningsAndErrors(int fromIndex) {
+        final List<Map.Entry<String, String>> result = new ArrayList<>();
+        for (Map.Entry<String, String> entry : messages.subList(bufferIndex(fromIndex), messages.size())) {
+            final String key = entry.getKey();
+            if (LogLevel.WARN.name().equals(key) || LogLevel.ERROR.name().equals(key)) {
+                result.add(entry);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Collects the given message unless the given {@code level} is below the level of this {@link CollectingLogger}.
+     * The message is not formatted before it is read.
+     */
     @Override
     public void log(LogLevel level, String string, Object... args) {
-        messages.add(new AbstractMap.SimpleImmutableEntry<String, String>(level.name(),
-                Slf4jFormatter.format(string, args)));
+        if (isLevelEnabled(level)) {
+            messages.add(new Message(level, string, args == null ? new Object[0] : args));
+        }
     }
 
     /**
-     * Append the {@link #messages} and {@link #failureMessage} to the given {@code output}.
+     * Collects a message reporting a single violation unless the given {@code level} is below the level of this
+     * {@link CollectingLogger}. The message is not formatted before it is read.
      *
-     * @param output the {@link Appendable} to append to
-     * @throws IOException thrown from {@link Appendable#append(CharSequence)}
+     * @param level the {@link LogLevel} of the message
+     * @param file the path of the file having the violation relative to the project directory
+     * @param linter the class name of the linter that found the violation
+     * @param string the message pattern
+     * @param args the arguments of the message pattern
      */
-    public void serialize(Appendable output) throws IOException {
-        for (Map.Entry<String, String> entry : messages) {
-            output.append(entry.getKey()).append(' ');
-            escape(entry.getValue(), output);
-            output.append('\n');
+    public void violation(LogLevel level, String file, String linter, String string, Object... args) {
+        if (isLevelEnabled(level)) {
+            messages.add(new ViolationMessage(file, linter,
+                    new Message(level, string, args == null ? new Object[0] : args)));
         }
-        if (failureMessage != null) {
-            output.append(FAILURE).append(' ');
-            escape(failureMessage, output);
+    }
+
+    /**
+     * @return the number of messages collected so far
+     */
+    public int size() {
+        return spilledCount + messages.size();
+    }
+
+    /**
+     * Moves the messages held in memory to the spill file if there are more than {@code maxBufferedMessages} of
+     * them. The caller must not pass any index lower than the current {@link #size()} to {@link #getMessages(int)}
+     * or {@link #getWarningsAndErrors(int)} after calling this method.
+     *
+     * @throws IOException on I/O problems
+     */
+    public void spillIfFull() throws IOException {
+        if (messages.size() <= maxBufferedMessages) {
+            return;
+        }
+        if (spillOut == null) {
+            Files.createDirectories(spillFile.getParent());
+            spillOut = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(spillFile)));
+        }
+        writeMessages(messages, spillOut);
+        spilledCount += messages.size();
+        messages.clear();
+    }
+
+    /**
+     * Writes the spilled messages, the {@link #messages}, the {@link #failureMessage} and the {@link #counts} to the
+     * given {@code resultFile} in a compact binary format readable by {@link #read(Path, MessageConsumer)}. The
+     * messages end with a marker so that a truncated file is detected when reading.
+     *
+     * @param resultFile the file to write
+     * @throws IOException on I/O problems
+     */
+    public void write(Path resultFile) throws IOException {
+        Files.createDirectories(resultFile.getParent());
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(resultFile)))) {
+            out.writeInt(VERSION);
+            if (spillOut != null) {
+                spillOut.close();
+                spillOut = null;
+                /* The spill file contains just the message records so it can be copied verbatim */
+                Files.copy(spillFile, out);
+                Files.delete(spillFile);
+            }
+            writeMessages(messages, out);
+            out.writeByte(END);
+            out.writeBoolean(failureMessage != null);
+            if (failureMessage != null) {
+                writeString(failureMessage, out);
+            }
+            synchronized (this) {
+                out.writeInt(counts.size());
+                for (Map.Entry<String, Long> e : counts.entrySet()) {
+                    writeString(e.getKey(), out);
+                    out.writeLong(e.getValue());
+                }
+            }
         }
     }
 
@@ -18,16 +18,21 @@ package org.ec4j.gradle;
 
 import javax.inject.Inject;
 
+import org.gradle.api.tasks.CacheableTask;
 import org.gradle.workers.WorkerExecutor;
 
 /**
  * Checks whether files are formatted according to rules defined in {@code .editorconfig} files. If fomat violations are
  * detected, either causes the build to fail (if {@link EditorconfigExtension#isFailOnFormatViolation()} is
  * {@code true}) or just produces a warning.
+ * <p>
+ * The task is cacheable: all file inputs are normalized relative to the project directory so that a result computed in
+ * one checkout can be reused in another checkout located elsewhere.
  *
  * @since 0.0.1
  * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
  */
+@CacheableTask
 public class EditorconfigCheckTask extends AbstractEditorconfigTask {
 
     public static final String NAME = "editorconfigCheck";
@@ -18,6 +18,9 @@ package org.ec4j.gradle;
 
 import org.ec4j.lint.api.Constants;
 import org.ec4j.lint.api.Linter;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.Optional;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -51,19 +54,30 @@ public class EditorconfigExtension {
     private boolean addLintersFromClassPath = true;
 
     /**
-     * If {@code true}, a backup file will be created for every file that needs to be formatted just before the
-     * formatted version is stored. If {@code false}, no backup is done and the files are formatted in place. See also
-     * {@link #backupSuffix}.
+     * If {@code true}, a backup will be created for every file that needs to be formatted just before the formatted
+     * version is stored. The backups of each run rewriting any file are stored in a separate directory under
+     * {@code build/editorconfig/backups}, see also {@link #backupSetsToKeep}. If {@code false}, no backup is done and
+     * the files are formatted in place.
      *
      * @since 0.0.1
      */
     private boolean backup;
 
     /**
-     * A suffix to append to a file name to create its backup. See also {@link #backup}.
+     * The number of the most recent backup sets to keep under {@code build/editorconfig/backups}; the older ones are
+     * deleted whenever {@code editorconfigFormat} creates a new one. See also {@link #backup}.
+     *
+     * @since 0.1.1
+     */
+    private int backupSetsToKeep = 3;
+
+    /**
+     * Not used anymore, as the backups are not stored next to the original files since 0.1.1. See {@link #backup}.
      *
      * @since 0.0.1
+     * @deprecated the backups are stored under {@code build/editorconfig/backups}
      */
+    @Deprecated
     private String backupSuffix = ".bak";
 
     /**
@@ -83,17 +97,29 @@ public class EditorconfigExtension {
      */
     private boolean excludeNonSourceFiles = true;
 
+    /**
+     * If {@code true} the files and directories ignored by git will be excluded from the set of files to process. The
+     * ignore rules are read from the {@code .gitignore} files of the local checkout and from
+     * {@code .git/info/exclude}; ignored directories are not traversed at all. If the project is not inside of a git
+     * checkout, this option has no effect.
+     *
+     * @since 0.1.1
+     */
+    private boolean excludeGitIgnored = false;
+
     /**
      * File patterns to exclude from the set of files to process. The patterns are relative to the current project's
-     * {@code baseDir}. See also {@link #excludeNonSourceFiles} and {@link #excludeSubmodules}.
+     * {@code baseDir}. See also {@link #excludeNonSourceFiles}, {@link #excludeGitIgnored} and
+     * {@link #excludeSubmodules}.
      *
      * @since 0.0.1
      */
     private List<String> excludes = new ArrayList<>();
 
     /**
-     * If {@code true} the Maven submodule directories of the current project will be prepended to the list of
-     * {@link #excludes}. Otherwise, the module directories will not be excluded.
+     * If {@code true} the directories of the Gradle subprojects of the current project will be prepended to the list
+     * of {@link #excludes}, so that the files of each subproject are processed only by the subproject's own tasks.
+     * Otherwise, the subproject directories will not be excluded.
      *
      * @since 0.0.1
      */
@@ -132,46 +158,157 @@ public class EditorconfigExtension {
      */
     private List<LinterConfig> linters = new ArrayList<>();
 
+    /**
+     * The size in bytes above which {@code editorconfigCheck} reads a file in a streaming fashion instead of loading
+     * it to the heap as a whole. Applies only to the files checked solely by {@code org.ec4j.linters.TextLinter}. A
+     * negative value disables the streaming.
+     *
+     * @since 0.1.1
+     */
+    private long largeFileThreshold = 4L * 1024 * 1024;
+
+    /**
+     * The maximal number of passes over a single file in {@code editorconfigFormat}. Fixing a violation may produce
+     * another one, so the {@link Linter}s are run repeatedly until a pass finds nothing to fix, but at most this many
+     * times. The task warns about each file that was still changing in the last pass. The number of the passes per
+     * file is part of the timings report.
+     *
+     * @since 0.1.1
+     */
+    private int maxFormatPasses = 10;
+
+    /**
+     * The maximal number of violations reported individually by {@code editorconfigCheck}, taken in the order of the
+     * files over the whole task. Any further violations are only counted and summarized per {@link Linter} and per
+     * file at the end so that the output stays readable however many violations there are. A negative value, which
+     * is the default, means no limit so that all violations are reported as in the earlier versions.
+     *
+     * @since 0.1.1
+     */
+    private int maxReportedViolations = -1;
+
+    /**
+     * The number of threads to use for processing the files within a single worker. The default {@code 1} means that
+     * the files are processed sequentially. Values greater than {@code 1} require all {@link Linter}s in use to be
+     * thread safe. The log output is kept in the order of the files regardless of this setting.
+     *
+     * @since 0.1.1
+     */
+    private int parallelism = 1;
+
+    /**
+     * If set, only the files added or modified since the given git ref (committed or not) and the untracked files
+     * not ignored by git are processed, e.g. {@code origin/main} to check just the files touched by a pull request.
+     * Requires the project to be inside of a git checkout and {@code git} to be available on {@code PATH}.
+     *
+     * @since 0.1.1
+     */
+    private String ratchetFrom;
+
+    /**
+     * If {@code true} and {@link #ratchetFrom} is set, only the violations on the lines added or modified since
+     * {@link #ratchetFrom} according to {@code git diff} are reported by {@code editorconfigCheck} and fixed by
+     * {@code editorconfigFormat}. The untracked files are processed as a whole. Useful for adopting the plugin in a
+     * codebase with many pre-existing violations.
+     *
+     * @since 0.1.1
+     */
+    private boolean ratchetChangedLinesOnly = false;
+
+    @Internal
+    public int getBackupSetsToKeep() {
+        return backupSetsToKeep;
+    }
+
+    @Deprecated
+    @Internal
     public String getBackupSuffix() {
         return backupSuffix;
     }
 
+    @Input
+    @Optional
     public String getEncoding() {
         return encoding;
     }
 
+    @Input
     public List<String> getExcludes() {
         return excludes;
     }
 
+    @Input
     public List<String> getIncludes() {
         return includes;
     }
 
+    @Input
     public List<LinterConfig> getLinters() {
         return linters;
     }
 
+    @Internal
+    public long getLargeFileThreshold() {
+        return largeFileThreshold;
+    }
+
+    @Input
+    public int getMaxFormatPasses() {
+        return maxFormatPasses;
+    }
+
+    @Input
+    public int getMaxReportedViolations() {
+        return maxReportedViolations;
+    }
+
+    @Internal
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    @Input
+    @Optional
+    public String getRatchetFrom() {
+        return ratchetFrom;
+    }
+
+    @Input
+    public boolean isRatchetChangedLinesOnly() {
+        return ratchetChangedLinesOnly;
+    }
+
+    @Input
     public boolean isAddLintersFromClassPath() {
         return addLintersFromClassPath;
     }
 
+    @Input
     public boolean isBackup() {
         return backup;
     }
 
+    @Input
+    public boolean isExcludeGitIgnored() {
+        return excludeGitIgnored;
+    }
+
+    @Input
     public boolean isExcludeNonSourceFiles() {
         return excludeNonSourceFiles;
     }
 
+    @Input
     public boolean isExcludeSubmodules() {
         return excludeSubmodules;
     }
 
+    @Input
     public boolean isFailOnFormatViolation() {
         return failOnFormatViolation;
     }
 
+    @Input
     public boolean isFailOnNoMatchingProperties() {
         return failOnNoMatchingProperties;
     }
@@ -184,6 +321,11 @@ public class EditorconfigExtension {
         this.backup = backup;
     }
 
+    public void setBackupSetsToKeep(int backupSetsToKeep) {
+        this.backupSetsToKeep = backupSetsToKeep;
+    }
+
+    @Deprecated
     public void setBackupSuffix(String backupSuffix) {
         this.backupSuffix = backupSuffix;
     }
@@ -192,6 +334,10 @@ public class EditorconfigExtension {
         this.encoding = encoding;
     }
 
+    public void setExcludeGitIgnored(boolean excludeGitIgnored) {
+        this.excludeGitIgnored = excludeGitIgnored;
+    }
+
     public void setExcludeNonSourceFiles(boolean excludeNonSourceFiles) {
         this.excludeNonSourceFiles = excludeNonSourceFiles;
     }
@@ -219,4 +365,28 @@ public class EditorconfigExtension {
     public void setLinters(List<LinterConfig> linters) {
         this.linters = linters;
     }
+
+    public void setLargeFileThreshold(long largeFileThreshold) {
+        this.largeFileThreshold = largeFileThreshold;
+    }
+
+    public void setMaxFormatPasses(int maxFormatPasses) {
+        this.maxFormatPasses = maxFormatPasses;
+    }
+
+    public void setMaxReportedViolations(int maxReportedViolations) {
+        this.maxReportedViolations = maxReportedViolations;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public void setRatchetChangedLinesOnly(boolean ratchetChangedLinesOnly) {
+        this.ratchetChangedLinesOnly = ratchetChangedLinesOnly;
+    }
+
+    public void setRatchetFrom(String ratchetFrom) {
+        this.ratchetFrom = ratchetFrom;
+    }
 }
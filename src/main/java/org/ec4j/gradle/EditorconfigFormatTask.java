@@ -18,6 +18,7 @@ package org.ec4j.gradle;
 
 import javax.inject.Inject;
 
+import org.gradle.work.DisableCachingByDefault;
 import org.gradle.workers.WorkerExecutor;
 
 /**
@@ -26,6 +27,7 @@ import org.gradle.workers.WorkerExecutor;
  * @since 0.0.1
  * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
  */
+@DisableCachingByDefault(because = "Modifies its input files")
 public class EditorconfigFormatTask extends AbstractEditorconfigTask {
     public static final String NAME = "editorconfigFormat";
 
@@ -30,7 +30,11 @@ public class EditorconfigGradlePlugin implements Plugin<Project> {
     /** {@inheritDoc} */
     @Override
     public void apply(Project project) {
-        project.getExtensions().create(EditorconfigExtension.NAME, EditorconfigExtension.class);
+        /*
+         * A plain, undecorated instance, so that the tasks referencing it can be stored in the configuration cache
+         */
+        project.getExtensions().add(EditorconfigExtension.class, EditorconfigExtension.NAME,
+                new EditorconfigExtension());
         project.getConfigurations().maybeCreate(CONFIGURATION_NAME);
 
         project.getTasks().create(EditorconfigCheckTask.NAME, EditorconfigCheckTask.class);
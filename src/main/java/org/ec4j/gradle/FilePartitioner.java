@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2018 EditorConfig Gradle Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ec4j.gradle;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * Splits a list of files into chunks of approximately the same weight to be processed by parallel work items.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+class FilePartitioner {
+
+    /**
+     * The minimal number of files worth a separate work item; splitting smaller sets does not pay off because every
+     * work item needs to load the linters in its own class loader
+     */
+    static final int MIN_FILES_PER_CHUNK = 1000;
+
+    /**
+     * @param fileCount the number of files to process
+     * @param maxWorkers the maximal number of parallel workers allowed by Gradle
+     * @return the number of chunks to split {@code fileCount} files to
+     */
+    static int chunkCount(int fileCount, int maxWorkers) {
+        final int byFileCount = (fileCount + MIN_FILES_PER_CHUNK - 1) / MIN_FILES_PER_CHUNK;
+        return Math.max(1, Math.min(maxWorkers, byFileCount));
+    }
+
+    /**
+     * Splits the given {@code items} into at most {@code chunkCount} contiguous chunks of approximately the same total
+     * weight. Keeping the chunks contiguous makes it possible to merge the results of the chunks in the order of the
+     * original {@code items}.
+     *
+     * @param items the items to split
+     * @param weight the weight of an item, e.g. its size in bytes or the time it took to process it last time
+     * @param chunkCount the requested number of chunks
+     * @param <T> the type of the items
+     * @return a {@link List} of non-empty chunks; a single empty chunk if {@code items} is empty
+     */
+    static <T> List<List<T>> partition(List<T> items, ToLongFunction<T> weight, int chunkCount) {
+        final int n = Math.max(1, Math.min(chunkCount, items.size()));
+        if (n == 1) {
+            return Collections.singletonList(items);
+        }
+        final long[] weights = new long[items.size()];
+        long total = 0;
+        for (int i = 0; i < weights.length; i++) {
+            /* every item costs something even if it is empty */
+            weights[i] = Math.max(1L, weight.applyAsLong(items.get(i)));
+            total += weights[i];
+        }
+        final List<List<T>> result = new ArrayList<>(n);
+        List<T> current = new ArrayList<>();
+        long cumulative = 0;
+        for (int i = 0; i < weights.length; i++) {
+            current.add(items.get(i));
+            cumulative += weights[i];
+            final int remainingItems = weights.length - i - 1;
+            final int remainingChunks = n - result.size() - 1;
+            final boolean thresholdReached = cumulative * n >= total * (result.size() + 1);
+            if (remainingChunks > 0 && (thresholdReached || remainingItems == remainingChunks)) {
+                result.add(current);
+                current = new ArrayList<>();
+            }
+        }
+        result.add(current);
+        return result;
+    }
+
+    private FilePartitioner() {
+    }
+}
@@ -0,0 +1,277 @@
+/*
+ * Copyright (c) 2018 EditorConfig Gradle Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ec4j.gradle;
+
+import java.io.IOException;
+import java.nio.file.FileSystemLoopException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.apache.tools.ant.DirectoryScanner;
+
+/**
+ * Selects files by Ant-style include and exclude patterns, the same way as {@link org.gradle.api.tasks.util.PatternSet}
+ * does, including the default excludes of Ant, such as the {@code .git} directories, which Gradle applies to every
+ * file tree. The patterns are compiled once and directories are pruned as soon as they are reached if they are
+ * excluded, ignored by git (if requested) or if no include pattern can match anything below them.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+class FileWalker {
+
+    /**
+     * A compiled Ant-style pattern supporting {@code **}, {@code *} and {@code ?}.
+     */
+    static class AntPattern {
+        private static final Pattern DOUBLE_STAR = Pattern.compile("\\*\\*");
+
+        /**
+         * @param pattern the Ant-style pattern to compile
+         * @return a new {@link AntPattern}
+         */
+        static AntPattern compile(String pattern) {
+            String normalized = pattern.replace('\\', '/');
+            if (normalized.endsWith("/")) {
+                normalized += "**";
+            }
+            final List<Pattern> segments = new ArrayList<>();
+            for (String segment : normalized.split("/")) {
+                if (segment.isEmpty()) {
+                    continue;
+                }
+                if ("**".equals(segment)) {
+                    segments.add(DOUBLE_STAR);
+                } else {
+                    segments.add(compileSegment(segment));
+                }
+            }
+            return new AntPattern(segments.toArray(new Pattern[0]));
+        }
+
+        private static Pattern compileSegment(String segment) {
+            final StringBuilder regex = new StringBuilder();
+            int literalStart = 0;
+            for (int i = 0; i < segment.length(); i++) {
+                final char ch = segment.charAt(i);
+                if (ch == '*' || ch == '?') {
+                    if (literalStart < i) {
+                        regex.append(Pattern.quote(segment.substring(literalStart, i)));
+                    }
+                    regex.append(ch == '*' ? ".*" : ".");
+                    literalStart = i + 1;
+                }
+            }
+            if (literalStart < segment.length()) {
+                regex.append(Pattern.quote(segment.substring(literalStart)));
+            }
+            return Pattern.compile(regex.toString(), Pattern.DOTALL);
+        }
+
+        private final Pattern[] segments;
+
+        AntPattern(Pattern[] segments) {
+            super();
+            this.segments = segments;
+        }
+
+        /**
+         * @param path the segments of a path relative to the root directory
+         * @return {@code true} if this pattern matches the given {@code path}
+         */
+        boolean matches(String[] path) {
+            return matches(0, path, 0);
+        }
+
+        private boolean matches(int patternIndex, String[] path, int pathIndex) {
+            if (patternIndex == segments.length) {
+                return pathIndex == path.length;
+            }
+            if (segments[patternIndex] == DOUBLE_STAR) {
+                for (int i = pathIndex; i <= path.length; i++) {
+                    if (matches(patternIndex + 1, path, i)) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+            return pathIndex < path.length && segments[patternIndex].matcher(path[pathIndex]).matches()
+                    && matches(patternIndex + 1, path, pathIndex + 1);
+        }
+
+        /**
+         * @param dir the segments of a directory path relative to the root directory
+         * @return {@code true} if this pattern can match some path below the given {@code dir}
+         */
+        boolean matchesBelow(String[] dir) {
+            return matchesBelow(0, dir, 0);
+        }
+
+        private boolean matchesBelow(int patternIndex, String[] dir, int dirIndex) {
+            if (patternIndex == segments.length) {
+                return false;
+            }
+            if (dirIndex == dir.length || segments[patternIndex] == DOUBLE_STAR) {
+                return true;
+            }
+            return segments[patternIndex].matcher(dir[dirIndex]).matches()
+                    && matchesBelow(patternIndex + 1, dir, dirIndex + 1);
+        }
+    }
+
+    private static List<AntPattern> compile(Collection<String> patterns) {
+        final List<AntPattern> result = new ArrayList<>(patterns.size());
+        for (String pattern : patterns) {
+            result.add(AntPattern.compile(pattern));
+        }
+        return result;
+    }
+
+    private static String[] split(String relativePath) {
+        return relativePath.isEmpty() ? new String[0] : relativePath.replace('\\', '/').split("/");
+    }
+
+    private final List<AntPattern> excludes;
+    private final GitIgnore gitIgnore;
+    private final List<AntPattern> includes;
+
+    /**
+     * @param includes the include patterns; all files are included if empty
+     * @param excludes the exclude patterns in addition to {@link DirectoryScanner#getDefaultExcludes()}
+     */
+    FileWalker(Collection<String> includes, Collection<String> excludes) {
+        this(includes, excludes, null);
+    }
+
+    /**
+     * @param includes the include patterns; all files are included if empty
+     * @param excludes the exclude patterns in addition to {@link DirectoryScanner#getDefaultExcludes()}
+     * @param gitIgnore if not {@code null}, the files and directories ignored by git are excluded too; the base
+     *        directory of the {@link GitIgnore} must be the root directory of this walker
+     */
+    FileWalker(Collection<String> includes, Collection<String> excludes, GitIgnore gitIgnore) {
+        super();
+        this.includes = compile(includes);
+        this.excludes = compile(Arrays.asList(DirectoryScanner.getDefaultExcludes()));
+        this.excludes.addAll(compile(excludes));
+        this.gitIgnore = gitIgnore;
+    }
+
+    /**
+     * @param relativeDir a directory path relative to the root directory, using {@code /} as a separator
+     * @return {@code true} if the files under the given {@code relativeDir} may be included
+     */
+    boolean isDescended(String relativeDir) {
+        final String[] dir = split(relativeDir);
+        if (isExcluded(dir) || (gitIgnore != null && gitIgnore.isIgnored(relativeDir, true))) {
+            return false;
+        }
+        if (includes.isEmpty()) {
+            return true;
+        }
+        for (AntPattern include : includes) {
+            if (include.matchesBelow(dir)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isExcluded(String[] path) {
+        for (AntPattern exclude : excludes) {
+            if (exclude.matches(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param relativeFile a file path relative to the root directory, using {@code /} as a separator
+     * @return {@code true} if the given {@code relativeFile} is included and not excluded
+     */
+    boolean isIncluded(String relativeFile) {
+        final String[] file = split(relativeFile);
+        if (isExcluded(file) || (gitIgnore != null && gitIgnore.isIgnored(relativeFile, false))) {
+            return false;
+        }
+        if (includes.isEmpty()) {
+            return true;
+        }
+        for (AntPattern include : includes) {
+            if (include.matches(file)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Walks the given {@code root} directory skipping the pruned subtrees.
+     *
+     * @param root the directory to walk
+     * @return the absolute paths of the included files, sorted
+     * @throws IOException on I/O problems
+     */
+    List<Path> walk(Path root) throws IOException {
+        final Path absRoot = root.toAbsolutePath();
+        final List<Path> result = new ArrayList<>();
+        if (!Files.isDirectory(absRoot)) {
+            return result;
+        }
+        Files.walkFileTree(absRoot, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE,
+                new SimpleFileVisitor<Path>() {
+                    @Override
+                    public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                        return dir.equals(absRoot) || isDescended(relativize(dir)) ? FileVisitResult.CONTINUE
+                                : FileVisitResult.SKIP_SUBTREE;
+                    }
+
+                    private String relativize(Path path) {
+                        return absRoot.relativize(path).toString().replace('\\', '/');
+                    }
+
+                    @Override
+                    public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                        if (attrs.isRegularFile() && isIncluded(relativize(file))) {
+                            result.add(file);
+                        }
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult visitFileFailed(Path file, IOException exc) throws IOException {
+                        if (exc instanceof FileSystemLoopException) {
+                            return FileVisitResult.CONTINUE;
+                        }
+                        throw exc;
+                    }
+                });
+        Collections.sort(result);
+        return result;
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2018 EditorConfig Gradle Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ec4j.gradle;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.ec4j.lint.api.Constants;
+import org.gradle.api.file.FileTreeElement;
+import org.gradle.api.specs.Spec;
+
+/**
+ * A {@link Spec} selecting the same files as the {@link FileWalker} built from an {@link EditorconfigExtension}.
+ * Rejecting the pruned directories makes Gradle skip them when fingerprinting the inputs. Unlike a lambda, this
+ * {@link Spec} can be stored in the configuration cache: the {@link FileWalker} is built lazily from the stored
+ * fields.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+class FileWalkerSpec implements Spec<FileTreeElement> {
+
+    private static final String EDITORCONFIG_FILE_NAME = ".editorconfig";
+
+    private final boolean editorconfigFilesOnly;
+    private final EditorconfigExtension extension;
+    private final File projectDir;
+    private final List<String> subprojectExcludes;
+    /** Not stored in the configuration cache; rebuilt on first use */
+    private transient FileWalker walker;
+
+    /**
+     * @param projectDir the directory to walk
+     * @param extension the {@link EditorconfigExtension} to take the includes and excludes from
+     * @param subprojectExcludes the exclude patterns for the subproject directories, applied if
+     *        {@link EditorconfigExtension#isExcludeSubmodules()} is set
+     * @param editorconfigFilesOnly if {@code true}, only the {@code .editorconfig} files are selected regardless of
+     *        {@link EditorconfigExtension#getIncludes()} and {@link EditorconfigExtension#getExcludes()}
+     */
+    FileWalkerSpec(File projectDir, EditorconfigExtension extension, List<String> subprojectExcludes,
+            boolean editorconfigFilesOnly) {
+        super();
+        this.projectDir = projectDir;
+        this.extension = extension;
+        this.subprojectExcludes = subprojectExcludes;
+        this.editorconfigFilesOnly = editorconfigFilesOnly;
+    }
+
+    /**
+     * @return the {@link FileWalker} selecting the files by {@link EditorconfigExtension#getIncludes()} and
+     *         {@link EditorconfigExtension#getExcludes()}
+     */
+    FileWalker getWalker() {
+        if (walker == null) {
+            final Set<String> excls = new LinkedHashSet<>();
+            if (extension.isExcludeSubmodules()) {
+                excls.addAll(subprojectExcludes);
+            }
+            if (!editorconfigFilesOnly) {
+                excls.addAll(extension.getExcludes());
+            }
+            if (extension.isExcludeNonSourceFiles()) {
+                excls.addAll(Constants.DEFAULT_EXCLUDES);
+            }
+            final GitIgnore gitIgnore = extension.isExcludeGitIgnored() ? GitIgnore.find(projectDir.toPath()) : null;
+            walker = new FileWalker(editorconfigFilesOnly ? Collections.singletonList("**/" + EDITORCONFIG_FILE_NAME)
+                    : extension.getIncludes(), excls, gitIgnore);
+        }
+        return walker;
+    }
+
+    @Override
+    public boolean isSatisfiedBy(FileTreeElement element) {
+        final FileWalker w = getWalker();
+        return element.isDirectory() ? w.isDescended(element.getRelativePath().getPathString())
+                : w.isIncluded(element.getRelativePath().getPathString());
+    }
+
+}
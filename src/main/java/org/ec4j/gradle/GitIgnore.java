@@ -0,0 +1,252 @@
+/*
+ * Copyright (c) 2018 EditorConfig Gradle Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ec4j.gradle;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Evaluates the ignore rules of a local git checkout: the {@code .gitignore} files in the directories from the root of
+ * the repository down to the file in question and {@code .git/info/exclude}. The rules are read from the file system
+ * lazily, once per directory; no {@code git} executable is needed.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+class GitIgnore {
+
+    /**
+     * A single line of an ignore file.
+     */
+    static class Rule {
+        /**
+         * Parses a single line of an ignore file.
+         *
+         * @param line the line to parse
+         * @return a new {@link Rule} or {@code null} if the line is blank or a comment
+         */
+        static Rule parse(String line) {
+            String pattern = trimTrailingSpaces(line);
+            if (pattern.isEmpty() || pattern.startsWith("#")) {
+                return null;
+            }
+            boolean negated = false;
+            if (pattern.startsWith("!")) {
+                negated = true;
+                pattern = pattern.substring(1);
+            } else if (pattern.startsWith("\\!") || pattern.startsWith("\\#")) {
+                pattern = pattern.substring(1);
+            }
+            boolean directoryOnly = false;
+            if (pattern.endsWith("/")) {
+                directoryOnly = true;
+                pattern = pattern.substring(0, pattern.length() - 1);
+            }
+            if (pattern.isEmpty()) {
+                return null;
+            }
+            /* A slash at the beginning or in the middle anchors the pattern to the directory of the ignore file */
+            final boolean anchored = pattern.indexOf('/') >= 0;
+            if (pattern.startsWith("/")) {
+                pattern = pattern.substring(1);
+            }
+            final String regex = (anchored ? "" : "(?:.*/)?") + toRegex(pattern);
+            return new Rule(Pattern.compile(regex, Pattern.DOTALL), negated, directoryOnly);
+        }
+
+        private static String toRegex(String glob) {
+            final StringBuilder result = new StringBuilder();
+            int i = 0;
+            while (i < glob.length()) {
+                final char ch = glob.charAt(i);
+                if (glob.startsWith("**/", i) && (i == 0 || glob.charAt(i - 1) == '/')) {
+                    result.append("(?:.*/)?");
+                    i += 3;
+                } else if (glob.startsWith("**", i) && i + 2 == glob.length()
+                        && (i == 0 || glob.charAt(i - 1) == '/')) {
+                    result.append(".*");
+                    i += 2;
+                } else if (ch == '*') {
+                    result.append("[^/]*");
+                    i++;
+                } else if (ch == '?') {
+                    result.append("[^/]");
+                    i++;
+                } else if (ch == '[' && glob.indexOf(']', i + 2) > 0) {
+                    final int end = glob.indexOf(']', i + 2);
+                    String set = glob.substring(i + 1, end);
+                    if (set.startsWith("!")) {
+                        set = "^" + set.substring(1);
+                    }
+                    result.append('[').append(set.replace("\\", "\\\\").replace("[", "\\[")).append(']');
+                    i = end + 1;
+                } else if (ch == '\\' && i + 1 < glob.length()) {
+                    result.append(Pattern.quote(String.valueOf(glob.charAt(i + 1))));
+                    i += 2;
+                } else {
+                    result.append(Pattern.quote(String.valueOf(ch)));
+                    i++;
+                }
+            }
+            return result.toString();
+        }
+
+        private static String trimTrailingSpaces(String line) {
+            int end = line.length();
+            while (end > 0 && line.charAt(end - 1) == ' ' && (end < 2 || line.charAt(end - 2) != '\\')) {
+                end--;
+            }
+            return line.substring(0, end);
+        }
+
+        private final boolean directoryOnly;
+        private final boolean negated;
+        private final Pattern pattern;
+
+        Rule(Pattern pattern, boolean negated, boolean directoryOnly) {
+            super();
+            this.pattern = pattern;
+            this.negated = negated;
+            this.directoryOnly = directoryOnly;
+        }
+
+        /**
+         * @param relativePath a path relative to the directory of the ignore file, using {@code /} as a separator
+         * @param directory {@code true} if the path denotes a directory
+         * @return {@code true} if this {@link Rule} applies to the given path
+         */
+        boolean matches(String relativePath, boolean directory) {
+            return (directory || !directoryOnly) && pattern.matcher(relativePath).matches();
+        }
+    }
+
+    private static final String GITIGNORE = ".gitignore";
+
+    /**
+     * @param baseDir the directory to start at; the relative paths passed to {@link #isIgnored(String, boolean)} are
+     *        resolved against it
+     * @return a new {@link GitIgnore} for the git checkout containing the given {@code baseDir} or {@code null} if
+     *         {@code baseDir} is not inside of a git checkout
+     */
+    static GitIgnore find(Path baseDir) {
+        final Path absBaseDir = baseDir.toAbsolutePath().normalize();
+        for (Path d = absBaseDir; d != null; d = d.getParent()) {
+            final Path dotGit = d.resolve(".git");
+            if (Files.isDirectory(dotGit)) {
+                return new GitIgnore(absBaseDir, d, dotGit);
+            } else if (Files.isRegularFile(dotGit)) {
+                /* A worktree or a submodule: .git is a file containing "gitdir: <path>" */
+                return new GitIgnore(absBaseDir, d, resolveGitDir(d, dotGit));
+            }
+        }
+        return null;
+    }
+
+    private static Boolean match(List<Rule> rules, Path relPath, boolean directory, Boolean previous) {
+        final String path = relPath.toString().replace('\\', '/');
+        Boolean result = previous;
+        for (Rule rule : rules) {
+            if (rule.matches(path, directory)) {
+                result = !rule.negated;
+            }
+        }
+        return result;
+    }
+
+    private static List<Rule> readRules(Path ignoreFile) {
+        if (!Files.isRegularFile(ignoreFile)) {
+            return Collections.emptyList();
+        }
+        try {
+            final List<Rule> result = new ArrayList<>();
+            for (String line : Files.readAllLines(ignoreFile, StandardCharsets.UTF_8)) {
+                final Rule rule = Rule.parse(line);
+                if (rule != null) {
+                    result.add(rule);
+                }
+            }
+            return result;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read " + ignoreFile, e);
+        }
+    }
+
+    private static Path resolveGitDir(Path workTree, Path dotGitFile) {
+        try {
+            for (String line : Files.readAllLines(dotGitFile, StandardCharsets.UTF_8)) {
+                if (line.startsWith("gitdir:")) {
+                    final Path gitDir = workTree.resolve(line.substring("gitdir:".length()).trim()).normalize();
+                    final Path commonDirFile = gitDir.resolve("commondir");
+                    if (Files.isRegularFile(commonDirFile)) {
+                        final String commonDir = new String(Files.readAllBytes(commonDirFile), StandardCharsets.UTF_8)
+                                .trim();
+                        return gitDir.resolve(commonDir).normalize();
+                    }
+                    return gitDir;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read " + dotGitFile, e);
+        }
+        return dotGitFile;
+    }
+
+    private final Path baseDir;
+    private final List<Rule> excludeRules;
+    private final Map<Path, List<Rule>> rulesByDir = new ConcurrentHashMap<>();
+    private final Path workTree;
+
+    GitIgnore(Path baseDir, Path workTree, Path gitDir) {
+        super();
+        this.baseDir = baseDir;
+        this.workTree = workTree;
+        this.excludeRules = readRules(gitDir.resolve("info").resolve("exclude"));
+    }
+
+    /**
+     * @param relativePath a path relative to the base directory passed to {@link #find(Path)}
+     * @param directory {@code true} if the path denotes a directory
+     * @return {@code true} if the given {@code relativePath} is ignored by git
+     */
+    boolean isIgnored(String relativePath, boolean directory) {
+        final Path absPath = baseDir.resolve(relativePath).normalize();
+        if (!absPath.startsWith(workTree) || absPath.equals(workTree)) {
+            return false;
+        }
+        final Path relPath = workTree.relativize(absPath);
+        if (".git".equals(relPath.getName(0).toString())) {
+            return true;
+        }
+        /* The last matching rule wins; the rules of deeper directories take precedence */
+        Boolean ignored = match(excludeRules, relPath, directory, null);
+        Path dir = workTree;
+        for (int i = 0; i < relPath.getNameCount(); i++) {
+            final List<Rule> rules = rulesByDir.computeIfAbsent(dir, d -> readRules(d.resolve(GITIGNORE)));
+            ignored = match(rules, dir.relativize(absPath), directory, ignored);
+            dir = dir.resolve(relPath.getName(i));
+        }
+        return ignored != null && ignored;
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2018 EditorConfig Gradle Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ec4j.gradle;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.gradle.api.GradleException;
+
+/**
+ * Finds the files changed in the local git checkout since a given ref using the {@code git} executable.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+class GitRatchet {
+
+    /** The new file part of a hunk header, such as {@code @@ -10,2 +11,3 @@} */
+    private static final Pattern HUNK_HEADER = Pattern.compile("^@@ -[0-9,]+ \\+([0-9]+)(?:,([0-9]+))? @@");
+
+    /**
+     * @param projectDir the current project's directory
+     * @param ref the git ref to compare with, such as {@code origin/main}
+     * @return the absolute paths of the files under {@code projectDir} that were added or modified since the
+     *         {@link #mergeBase(Path, String) merge base} of {@code HEAD} and {@code ref}, both committed and
+     *         uncommitted, plus the untracked files not ignored by git
+     */
+    static Set<String> changedFiles(Path projectDir, String ref) {
+        final Set<String> result = new LinkedHashSet<>();
+        final List<String> changed = git(projectDir, "diff", "--name-only", "-z", "--relative",
+                "--diff-filter=ACMRT", mergeBase(projectDir, ref), "--");
+        final List<String> untracked = git(projectDir, "ls-files", "--others", "--exclude-standard", "-z");
+        for (List<String> paths : Arrays.asList(changed, untracked)) {
+            for (String path : paths) {
+                result.add(projectDir.resolve(path).toString());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param projectDir the current project's directory
+     * @param ref the git ref to compare with, such as {@code origin/main}
+     * @return a {@link Map} from the absolute paths of the files under {@code projectDir} modified since the
+     *         {@link #mergeBase(Path, String) merge base} of {@code HEAD} and {@code ref} to the lines added or
+     *         modified in them in the form accepted by
+     *         {@link org.ec4j.gradle.runtime.LineRanges#parse(String)}. Untracked files are not present in the
+     *         {@link Map} as all their lines are new.
+     */
+    static Map<String, String> changedLines(Path projectDir, String ref) {
+        final Map<String, String> result = new LinkedHashMap<>();
+        final List<String> diff = git(projectDir, "-c", "core.quotePath=false", "diff", "-U0", "--no-color",
+                "--no-prefix", "--relative", "--diff-filter=ACMRT", mergeBase(projectDir, ref), "--");
+        String currentFile = null;
+        boolean inHeader = false;
+        final StringBuilder ranges = new StringBuilder();
+        for (String line : diff) {
+            if (line.startsWith("diff --git ")) {
+                inHeader = true;
+            } else if (inHeader && line.startsWith("+++ ")) {
+                /* git appends a TAB to the paths containing spaces */
+                final String path = line.endsWith("\t") ? line.substring(4, line.length() - 1) : line.substring(4);
+                currentFile = projectDir.resolve(path).toString();
+                ranges.setLength(0);
+                result.put(currentFile, "");
+            } else if (line.startsWith("@@ ") && currentFile != null) {
+                inHeader = false;
+                final Matcher m = HUNK_HEADER.matcher(line);
+                if (m.find()) {
+                    final int start = Integer.parseInt(m.group(1));
+                    final int count = m.group(2) == null ? 1 : Integer.parseInt(m.group(2));
+                    /* A pure deletion has count 0 and adds no lines */
+                    if (count > 0) {
+                        if (ranges.length() > 0) {
+                            ranges.append(',');
+                        }
+                        ranges.append(start).append('-').append(start + count - 1);
+                        result.put(currentFile, ranges.toString());
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The changes made on the ref since the current branch forked from it are no changes of the current branch, so
+     * they need to be excluded by comparing with the merge base rather than with the tip of the ref.
+     *
+     * @param projectDir the current project's directory
+     * @param ref the git ref to compare with, such as {@code origin/main}
+     * @return the id of the best common ancestor commit of {@code HEAD} and the given {@code ref}
+     */
+    static String mergeBase(Path projectDir, String ref) {
+        final List<String> lines = git(projectDir, "merge-base", "HEAD", ref);
+        if (lines.isEmpty()) {
+            throw new GradleException("No common ancestor of HEAD and " + ref + " in " + projectDir);
+        }
+        return lines.get(0).trim();
+    }
+
+    /**
+     * Runs {@code git} in the given {@code dir}.
+     *
+     * @param dir the working directory
+     * @param args the arguments to pass to {@code git}
+     * @return the entries of the standard output separated by NUL characters or line breaks
+     */
+    private static List<String> git(Path dir, String... args) {
+        final List<String> command = new ArrayList<>(args.length + 1);
+        command.add("git");
+        command.addAll(Arrays.asList(args));
+        try {
+            final Process process = new ProcessBuilder(command).directory(dir.toFile()).start();
+            process.getOutputStream().close();
+            final CompletableFuture<String> stderr = CompletableFuture
+                    .supplyAsync(() -> readFully(process.getErrorStream()));
+            final String stdout = readFully(process.getInputStream());
+            final int exitCode = process.waitFor();
+            if (exitCode != 0) {
+                throw new GradleException(String.format("'%s' failed with exit code %d in %s: %s",
+                        String.join(" ", command), exitCode, dir, stderr.join().trim()));
+            }
+            final List<String> result = new ArrayList<>();
+            for (String entry : stdout.split("[\u0000\n]")) {
+                if (!entry.isEmpty()) {
+                    result.add(entry);
+                }
+            }
+            return result;
+        } catch (IOException e) {
+            throw new GradleException("Could not run " + String.join(" ", command) + " in " + dir, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GradleException("Interrupted while running " + String.join(" ", command), e);
+        }
+    }
+
+    private static String readFully(InputStream in) {
+        try (InputStream i = in) {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[8192];
+            int len;
+            while ((len = i.read(buffer)) >= 0) {
+                out.write(buffer, 0, len);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new GradleException("Could not read the output of git", e);
+        }
+    }
+
+    private GitRatchet() {
+    }
+}
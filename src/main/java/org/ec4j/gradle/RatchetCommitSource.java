@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2018 EditorConfig Gradle Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ec4j.gradle;
+
+import java.nio.file.Paths;
+
+import org.gradle.api.provider.Property;
+import org.gradle.api.provider.ValueSource;
+import org.gradle.api.provider.ValueSourceParameters;
+
+/**
+ * Resolves {@link EditorconfigExtension#getRatchetFrom()} to the merge base of {@code HEAD} and the given ref, i.e. to
+ * the commit the changed files are computed against. Being a {@link ValueSource}, it is obtained anew on every build,
+ * also when the task graph is loaded from the configuration cache.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+public abstract class RatchetCommitSource implements ValueSource<String, RatchetCommitSource.Parameters> {
+
+    /**
+     * The parameters of {@link RatchetCommitSource}.
+     */
+    public interface Parameters extends ValueSourceParameters {
+
+        /**
+         * @return the absolute path of the project directory
+         */
+        Property<String> getProjectDir();
+
+        /**
+         * @return the value of {@link EditorconfigExtension#getRatchetFrom()}; absent if not set
+         */
+        Property<String> getRatchetFrom();
+    }
+
+    @Override
+    public String obtain() {
+        final String ratchetFrom = getParameters().getRatchetFrom().getOrNull();
+        return ratchetFrom == null ? null
+                : GitRatchet.mergeBase(Paths.get(getParameters().getProjectDir().get()), ratchetFrom);
+    }
+
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2018 EditorConfig Gradle Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ec4j.gradle;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.ec4j.gradle.CollectingLogger.MessageConsumer;
+import org.ec4j.gradle.runtime.EditorconfigInvoker;
+
+/**
+ * Aggregates the result files of all work items of a task so that {@code maxReportedViolations} applies to the task
+ * as a whole and so that the counts stored by the work items via {@link CollectingLogger#count(String, long)} are
+ * reported once per task rather than once per work item. The work items report all violations as
+ * {@link CollectingLogger.ViolationMessage}s and the limit is applied here only, in the order of the result files,
+ * which is the order of the files, so that the same violations are reported regardless of the parallelism.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+class ResultSummary {
+
+    /** The failure message of {@code editorconfigCheck} if there are violations */
+    static final String VIOLATIONS_MESSAGE = "\nThere are .editorconfig violations. You may want to run\n\n    "
+            + EditorconfigInvoker.FIX_COMMAND + "\n\nto fix them automagically.\n";
+
+    private final Map<String, Long> counts = new TreeMap<>();
+    private final int maxReportedViolations;
+    private int reportedViolations;
+    private int resultCount;
+    /** The numbers of the violations not reported individually per file */
+    private final Map<String, Long> suppressedByFile = new TreeMap<>();
+    /** The numbers of the violations not reported individually per linter class */
+    private final Map<String, Long> suppressedByLinter = new TreeMap<>();
+
+    /**
+     * @param maxReportedViolations the maximal number of violations passed further by
+     *        {@link #read(Path, MessageConsumer)}; a negative value means no limit
+     */
+    ResultSummary(int maxReportedViolations) {
+        super();
+        this.maxReportedViolations = maxReportedViolations;
+    }
+
+    /**
+     * @param key the name of the count
+     * @return the sum of the counts stored under the given {@code key} in the result files read so far
+     */
+    long getCount(String key) {
+        final Long result = counts.get(key);
+        return result == null ? 0 : result.longValue();
+    }
+
+    /**
+     * Reads the given result file, passing the messages to the given {@code consumer}, except for the violations
+     * exceeding {@link #maxReportedViolations} in all result files read so far. Those are only counted.
+     *
+     * @param resultFile the file written by {@link CollectingLogger#write(Path)}
+     * @param consumer the {@link MessageConsumer} to notify
+     * @return the failure message of the work item or {@code null} if it did not fail
+     * @throws IOException on I/O problems
+     */
+    String read(Path resultFile, MessageConsumer consumer) throws IOException {
+        resultCount++;
+        return CollectingLogger.read(resultFile, new MessageConsumer() {
+            @Override
+            public void accept(String level, String message) throws IOException {
+                consumer.accept(level, message);
+            }
+
+            @Override
+            public void acceptViolation(String level, String file, String linter, String message)
+                    throws IOException {
+                if (maxReportedViolations < 0 || reportedViolations < maxReportedViolations) {
+                    reportedViolations++;
+                    consumer.acceptViolation(level, file, linter, message);
+                } else {
+                    suppressedByFile.merge(file, 1L, Long::sum);
+                    suppressedByLinter.merge(linter, 1L, Long::sum);
+                }
+            }
+        }, counts);
+    }
+
+    /**
+     * Passes the summary of all result files read so far to the given {@code consumer}.
+     *
+     * @param check {@code true} for {@code editorconfigCheck}, {@code false} for {@code editorconfigFormat}
+     * @param failOnFormatViolation if {@code true} the violations are reported as errors and fail the task
+     * @param failOnNoMatchingProperties if {@code true} the absence of any applicable {@code .editorconfig}
+     *        property is reported as an error
+     * @param basedir the project directory
+     * @param consumer the {@link MessageConsumer} to notify
+     * @return the failure message caused by the violations or {@code null} if the task should not fail
+     * @throws IOException if the {@code consumer} fails
+     */
+    String summarize(boolean check, boolean failOnFormatViolation, boolean failOnNoMatchingProperties, Path basedir,
+            MessageConsumer consumer) throws IOException {
+        final String violationLevel = failOnFormatViolation ? "ERROR" : "WARN";
+        long suppressed = 0;
+        for (Long count : suppressedByLinter.values()) {
+            suppressed += count;
+        }
+        if (suppressed > 0) {
+            consumer.accept(violationLevel, suppressed
+                    + " more violations were not reported individually because maxReportedViolations = "
+                    + maxReportedViolations);
+            for (Map.Entry<String, Long> e : suppressedByLinter.entrySet()) {
+                consumer.accept(violationLevel, "    " + e.getValue() + " violations reported by " + e.getKey());
+            }
+            for (Map.Entry<String, Long> e : suppressedByFile.entrySet()) {
+                consumer.accept(violationLevel, "    " + e.getKey() + ": " + e.getValue() + " violations");
+            }
+        }
+        if (!check) {
+            consumer.accept("INFO", "Rewrote " + getCount(EditorconfigInvoker.REWRITTEN_FILES) + " files");
+        }
+        if (getCount(EditorconfigInvoker.BINARY_FILES) > 0) {
+            consumer.accept("INFO", "Skipped " + getCount(EditorconfigInvoker.BINARY_FILES) + " binary files");
+        }
+        if (getCount(EditorconfigInvoker.REPLAYED_FILES) > 0) {
+            consumer.accept("INFO", "Replayed the results of " + getCount(EditorconfigInvoker.REPLAYED_FILES)
+                    + " unchanged files");
+        }
+        if (resultCount > 0 && getCount(EditorconfigInvoker.PROPERTY_MATCHED_FILES) == 0) {
+            consumer.accept(failOnNoMatchingProperties ? "ERROR" : "WARN",
+                    "No .editorconfig properties applicable for files under '" + basedir + "'");
+        }
+        if (check) {
+            consumer.accept("INFO", "Checked " + getCount(EditorconfigInvoker.PROCESSED_FILES) + " files");
+        } else {
+            consumer.accept("INFO", "Formatted " + getCount(EditorconfigInvoker.CHANGED_FILES) + " out of "
+                    + getCount(EditorconfigInvoker.PROCESSED_FILES) + " files");
+        }
+        return check && failOnFormatViolation && getCount(EditorconfigInvoker.VIOLATIONS) > 0 ? VIOLATIONS_MESSAGE
+                : null;
+    }
+
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2018 EditorConfig Gradle Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ec4j.gradle.runtime;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+import org.ec4j.lint.api.Resource;
+
+/**
+ * A {@link Resource} that leaves the file untouched when the formatted content is byte for byte equal to the content
+ * on disk, so that the file's modification time is preserved. Otherwise the file is replaced atomically through a
+ * temporary file in the same directory, after the original is backed up using {@link Backups}, if requested.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+class AtomicResource extends Resource {
+
+    private final Path backupSetDir;
+    private final Runnable onRewrite;
+    private final Path relativePath;
+
+    /**
+     * @param absPath the absolute path of the file
+     * @param relPath the path of the file relative to the project directory
+     * @param encoding the encoding of the file
+     * @param backupSetDir the backup set directory or {@code null} if no backup should be made
+     * @param onRewrite invoked each time the file is actually written
+     */
+    AtomicResource(Path absPath, Path relPath, Charset encoding, Path backupSetDir, Runnable onRewrite) {
+        super(absPath, relPath, encoding);
+        this.relativePath = relPath;
+        this.backupSetDir = backupSetDir;
+        this.onRewrite = onRewrite;
+    }
+
+    @Override
+    public void store() throws IOException {
+        final Path target = getPath().toRealPath();
+        final byte[] bytes = getText().toString().getBytes(getEncoding());
+        if (Files.size(target) == bytes.length && Arrays.equals(Files.readAllBytes(target), bytes)) {
+            return;
+        }
+        final Path tmp = Files.createTempFile(target.getParent(), "." + target.getFileName(), ".tmp");
+        try {
+            Files.write(tmp, bytes);
+            try {
+                Files.setPosixFilePermissions(tmp, Files.getPosixFilePermissions(target));
+            } catch (UnsupportedOperationException e) {
+                /* Not a POSIX file system; the temporary file has the default permissions already */
+            }
+            if (backupSetDir != null) {
+                /* May be a hard link to the original, so the original must not be modified in place */
+                Backups.backUp(target, backupSetDir, relativePath);
+            }
+            try {
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        onRewrite.run();
+    }
+
+}
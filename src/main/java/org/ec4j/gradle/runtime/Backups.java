@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2018 EditorConfig Gradle Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ec4j.gradle.runtime;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileSystemException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Backups of the files modified by {@code editorconfigFormat}, kept outside of the source tree. Each run of the task
+ * rewriting any file gets its own backup set directory named after the time of the run; the files are stored there
+ * under their paths relative to the project directory. As the formatted files replace the originals through a
+ * rename, the original content stays available under its old inode and the backup is just a hard link to it. Where a
+ * hard link cannot be created, e.g. because the build directory is on another file system, the content is copied to
+ * the {@code objects} directory under its SHA-1 digest once and the backup set links to that.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+public class Backups {
+
+    private static final String OBJECTS = "objects";
+
+    /**
+     * Backs up the given {@code file} unless it was backed up to the given set already. Hence a file rewritten
+     * several times during a single run keeps its original content in the backup set.
+     *
+     * @param file the file about to be replaced
+     * @param setDir the backup set directory as returned by {@link #newSet(Path)}; created if it does not exist
+     * @param relFile the path of the {@code file} relative to the project directory
+     * @throws IOException on I/O problems
+     */
+    static void backUp(Path file, Path setDir, Path relFile) throws IOException {
+        final Path backupFile = setDir.resolve(relFile);
+        if (Files.exists(backupFile)) {
+            return;
+        }
+        Files.createDirectories(backupFile.getParent());
+        try {
+            Files.createLink(backupFile, file);
+            return;
+        } catch (UnsupportedOperationException | FileSystemException e) {
+            /* Fall back to a content addressed copy */
+        }
+        final byte[] bytes = Files.readAllBytes(file);
+        final Path object = setDir.resolveSibling(OBJECTS).resolve(sha1(bytes));
+        if (!Files.exists(object)) {
+            Files.createDirectories(object.getParent());
+            final Path tmp = Files.createTempFile(object.getParent(), object.getFileName().toString(), ".tmp");
+            try {
+                Files.write(tmp, bytes);
+                Files.move(tmp, object, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                /* Stored concurrently by another worker */
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        }
+        try {
+            Files.createLink(backupFile, object);
+        } catch (UnsupportedOperationException | FileSystemException e) {
+            Files.copy(object, backupFile);
+        }
+    }
+
+    /**
+     * Returns the path of a new backup set directory without creating it. The directory is created by
+     * {@link #backUp(Path, Path, Path)} on the first actual rewrite, so that runs not rewriting anything leave no empty
+     * sets behind.
+     *
+     * @param backupsDir the root directory of all backup sets
+     * @return the directory of the new backup set
+     */
+    public static Path newSet(Path backupsDir) {
+        final String name = new SimpleDateFormat("yyyyMMdd-HHmmss-SSS").format(new Date());
+        Path result = backupsDir.resolve(name);
+        for (int i = 1; Files.exists(result); i++) {
+            result = backupsDir.resolve(name + "-" + i);
+        }
+        return result;
+    }
+
+    /**
+     * Deletes the oldest backup sets so that at most {@code setsToKeep} sets exist. The objects not linked from any
+     * set anymore are deleted too.
+     *
+     * @param backupsDir the root directory of all backup sets
+     * @param setsToKeep the number of backup sets to keep
+     * @throws IOException on I/O problems
+     */
+    public static void prune(Path backupsDir, int setsToKeep) throws IOException {
+        if (!Files.isDirectory(backupsDir)) {
+            return;
+        }
+        final List<Path> sets = new ArrayList<>();
+        try (DirectoryStream<Path> dirs = Files.newDirectoryStream(backupsDir, Files::isDirectory)) {
+            for (Path dir : dirs) {
+                if (!OBJECTS.equals(dir.getFileName().toString())) {
+                    sets.add(dir);
+                }
+            }
+        }
+        /* The names are timestamps, so they sort chronologically */
+        Collections.sort(sets);
+        for (int i = 0; i < sets.size() - Math.max(setsToKeep, 1); i++) {
+            deleteDirectory(sets.get(i));
+        }
+        pruneObjects(backupsDir.resolve(OBJECTS));
+    }
+
+    private static void deleteDirectory(Path dir) throws IOException {
+        Files.walkFileTree(dir, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult postVisitDirectory(Path d, IOException exc) throws IOException {
+                Files.delete(d);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * Deletes the objects having no other hard links. Nothing is deleted on file systems that do not report the number
+     * of links.
+     */
+    private static void pruneObjects(Path objectsDir) throws IOException {
+        if (!Files.isDirectory(objectsDir)) {
+            return;
+        }
+        try (DirectoryStream<Path> objects = Files.newDirectoryStream(objectsDir)) {
+            for (Path object : objects) {
+                final Object links;
+                try {
+                    links = Files.getAttribute(object, "unix:nlink");
+                } catch (UnsupportedOperationException | IllegalArgumentException e) {
+                    return;
+                }
+                if (links instanceof Integer && (Integer) links <= 1) {
+                    Files.delete(object);
+                }
+            }
+        }
+    }
+
+    private static String sha1(byte[] bytes) {
+        try {
+            final byte[] digest = MessageDigest.getInstance("SHA-1").digest(bytes);
+            final StringBuilder result = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                result.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return result.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Backups() {
+    }
+}
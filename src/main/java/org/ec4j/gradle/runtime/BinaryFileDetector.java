@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2018 EditorConfig Gradle Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ec4j.gradle.runtime;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Tells binary files from text files by looking at their first few kilobytes, like {@code git} and {@code grep} do.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+class BinaryFileDetector {
+
+    /** The number of bytes to inspect at the beginning of each file */
+    static final int SNIFF_LENGTH = 8 * 1024;
+
+    /**
+     * @param file the file to inspect
+     * @param charset the encoding the file is supposed to have
+     * @return {@code true} if the beginning of the given {@code file} contains a NUL byte or a byte sequence that is
+     *         not valid in the given {@code charset}
+     * @throws IOException on I/O problems
+     */
+    static boolean isBinary(Path file, Charset charset) throws IOException {
+        /* One byte more to tell whether anything follows the inspected part */
+        final byte[] bytes = new byte[SNIFF_LENGTH + 1];
+        int length = 0;
+        try (InputStream in = Files.newInputStream(file)) {
+            int read;
+            while (length < bytes.length && (read = in.read(bytes, length, bytes.length - length)) >= 0) {
+                length += read;
+            }
+        }
+        return isBinary(bytes, length, charset);
+    }
+
+    /**
+     * @param bytes the content of a file or its beginning
+     * @param length the number of valid {@code bytes}; at most {@link #SNIFF_LENGTH} of them are inspected
+     * @param charset the encoding the file is supposed to have
+     * @return {@code true} if the given {@code bytes} contain a NUL byte or a byte sequence that is not valid in the
+     *         given {@code charset}
+     */
+    static boolean isBinary(byte[] bytes, int length, Charset charset) {
+        final int sniffLength = Math.min(length, SNIFF_LENGTH);
+        /* NUL is a regular code unit in UTF-16 and UTF-32 */
+        if (!charset.name().startsWith("UTF-16") && !charset.name().startsWith("UTF-32")) {
+            for (int i = 0; i < sniffLength; i++) {
+                if (bytes[i] == 0) {
+                    return true;
+                }
+            }
+        }
+        final CharsetDecoder decoder = charset.newDecoder() //
+                .onMalformedInput(CodingErrorAction.REPORT) //
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+        final ByteBuffer in = ByteBuffer.wrap(bytes, 0, sniffLength);
+        final CharBuffer out = CharBuffer.allocate(sniffLength + 1);
+        /* A multi byte character cut off at the end of the inspected part is fine */
+        final CoderResult result = decoder.decode(in, out, length <= SNIFF_LENGTH);
+        return result.isError();
+    }
+
+    private BinaryFileDetector() {
+    }
+}
@@ -18,22 +18,35 @@ package org.ec4j.gradle.runtime;
 
 import java.io.IOException;
 import java.nio.charset.Charset;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 import javax.inject.Inject;
 
-import org.ec4j.core.Cache.Caches;
 import org.ec4j.core.Resource.Resources;
 import org.ec4j.core.ResourceProperties;
 import org.ec4j.core.ResourcePropertiesService;
 import org.ec4j.core.model.PropertyType;
+import org.ec4j.core.model.PropertyType.EndOfLineValue;
 import org.ec4j.gradle.CollectingLogger;
 import org.ec4j.gradle.EditorconfigCheckTask;
 import org.ec4j.gradle.EditorconfigFormatTask;
 import org.ec4j.gradle.LinterConfig;
+import org.ec4j.gradle.runtime.IncrementalState.FileResult;
 import org.ec4j.lint.api.FormatException;
 import org.ec4j.lint.api.FormattingHandler;
 import org.ec4j.lint.api.Linter;
@@ -41,6 +54,7 @@ import org.ec4j.lint.api.LinterRegistry;
 import org.ec4j.lint.api.Logger;
 import org.ec4j.lint.api.Logger.LogLevel;
 import org.ec4j.lint.api.Resource;
+import org.ec4j.lint.api.Violation;
 import org.ec4j.lint.api.ViolationCollector;
 import org.ec4j.lint.api.ViolationHandler;
 import org.gradle.api.GradleException;
@@ -57,15 +71,171 @@ public abstract class EditorconfigInvoker implements WorkAction<EditorconfigPara
         Resource createResource(Path absFile, Path relFile, Charset encoding);
     }
 
-    public static final String FORMAT_EXCEPTION_PREFIX = FormatException.class.getName() + "\n";
+    /**
+     * A {@link ViolationHandler} counting the {@link Violation}s of the current file. If a {@code violationLog} is
+     * given, the {@link Violation}s are logged to it as {@link CollectingLogger.ViolationMessage}s rather than passed
+     * to the wrapped {@link ViolationHandler}, so that the task can limit the number of the {@link Violation}s
+     * reported individually over all work items in the order of the files. If {@link LineRanges} are set for the
+     * current file, the {@link Violation}s outside of them are ignored altogether.
+     */
+    static class CountingViolationHandler implements ViolationHandler {
+        private String currentFile;
+        private final ViolationHandler delegate;
+        private LineRanges lineRanges;
+        private final Set<String> reportingLinters = new HashSet<>();
+        private int violationCount;
+        private final LogLevel violationLevel;
+        private final CollectingLogger violationLog;
+
+        CountingViolationHandler(ViolationHandler delegate, CollectingLogger violationLog, LogLevel violationLevel) {
+            super();
+            this.delegate = delegate;
+            this.violationLog = violationLog;
+            this.violationLevel = violationLevel;
+        }
+
+        @Override
+        public void endFiles() {
+            delegate.endFiles();
+        }
+
+        @Override
+        public ReturnState endFile() {
+            return delegate.endFile();
+        }
+
+        /**
+         * @return the number of {@link Violation}s handled so far
+         */
+        public int getViolationCount() {
+            return violationCount;
+        }
+
+        @Override
+        public void handle(Violation violation) {
+            final String linterClassName = violation.getLinter().getClass().getName();
+            if (admit(violation.getLocation().getLine())) {
+                reportingLinters.add(linterClassName);
+                if (violationLog != null) {
+                    violationLog.violation(violationLevel, currentFile, linterClassName, "{}", violation);
+                } else {
+                    delegate.handle(violation);
+                }
+            }
+        }
+
+        /**
+         * @return the class names of the {@link Linter}s whose {@link Violation}s were handled since the previous call
+         *         of this method
+         */
+        Set<String> pollReportingLinters() {
+            final Set<String> result = new HashSet<>(reportingLinters);
+            reportingLinters.clear();
+            return result;
+        }
+
+        /**
+         * Counts a violation unless it lies outside of the current {@link LineRanges}.
+         *
+         * @param line the line of the violation
+         * @return {@code true} if the violation should be reported
+         */
+        private boolean admit(int line) {
+            /* Violations without a line, if any, concern the file as a whole */
+            if (lineRanges != null && line > 0 && !lineRanges.contains(line)) {
+                return false;
+            }
+            violationCount++;
+            return true;
+        }
+
+        /**
+         * Counts and logs a violation found without a {@link Linter}, e.g. by {@link LineScanner}. Requires a
+         * {@code violationLog}.
+         *
+         * @param linterClassName the name of the {@link Linter} class whose check found the violation
+         * @param line the line of the violation
+         * @param pattern the message pattern
+         * @param args the arguments of the message pattern
+         */
+        void report(String linterClassName, int line, String pattern, Object... args) {
+            if (admit(line)) {
+                violationLog.violation(violationLevel, currentFile, linterClassName, pattern, args);
+            }
+        }
+
+        /**
+         * @param file the path of the file to handle the {@link Violation}s of, relative to the project directory
+         * @param lineRanges the lines of the given {@code file} in which the {@link Violation}s should be handled or
+         *        {@code null} to handle all of them
+         */
+        void setCurrentFile(String file, LineRanges lineRanges) {
+            this.currentFile = file;
+            this.lineRanges = lineRanges;
+        }
+
+        @Override
+        public void startFile(Resource resource) {
+            delegate.startFile(resource);
+        }
+
+        @Override
+        public void startFiles() {
+            delegate.startFiles();
+        }
+    }
+
+    /** The count of the files skipped because they do not look like text in their encoding */
+    public static final String BINARY_FILES = "binaryFiles";
+
+    /** The count of the processed files having at least one {@link Violation} */
+    public static final String CHANGED_FILES = "changedFiles";
+
+    /** The command to suggest when there are {@link Violation}s */
+    public static final String FIX_COMMAND = "./gradlew editorconfigFormat";
+
+    /** The count of the files processed by the {@link Linter}s */
+    public static final String PROCESSED_FILES = "processedFiles";
+
+    /** The count of the files to which any {@code .editorconfig} property is applicable */
+    public static final String PROPERTY_MATCHED_FILES = "propertyMatchedFiles";
+
+    /** The count of the unchanged files whose results were replayed from the incremental state */
+    public static final String REPLAYED_FILES = "replayedFiles";
+
+    /** The count of the files actually written by {@link AtomicResource#store()} */
+    public static final String REWRITTEN_FILES = "rewrittenFiles";
+
+    /** The count of the {@link Violation}s, including the replayed ones */
+    public static final String VIOLATIONS = "violations";
+
+    /** The only {@link Linter} whose checks {@link LineScanner} can perform */
+    private static final String TEXT_LINTER = "org.ec4j.linters.TextLinter";
+
+    /** The number of log messages above which the older ones are moved from memory to a temporary file */
+    private static final int MAX_BUFFERED_MESSAGES = 10000;
 
     private static LinterRegistry buildLinterRegistry(boolean isAddLintersFromClassPath,
+                                                      Path linterIndexFile,
                                                       List<LinterConfig> linters,
                                                       ClassLoader cl,
                                                       Logger log) {
         final LinterRegistry.Builder linterRegistryBuilder = LinterRegistry.builder().log(log);
         if (isAddLintersFromClassPath) {
-            linterRegistryBuilder.scan(cl);
+            List<LinterIndex.Entry> entries = null;
+            try {
+                entries = LinterIndex.load(linterIndexFile, cl, log);
+            } catch (IOException e) {
+                log.debug("Could not use linter index {}: {}", linterIndexFile, e.getMessage());
+            }
+            if (entries == null) {
+                linterRegistryBuilder.scan(cl);
+            } else {
+                for (LinterIndex.Entry entry : entries) {
+                    linterRegistryBuilder.entry(entry.getClassName(), entry.getClassName(), cl, entry.getIncludes(),
+                            entry.getExcludes(), false);
+                }
+            }
         }
         if (linters != null && !linters.isEmpty()) {
             for (LinterConfig linter : linters) {
@@ -83,92 +253,474 @@ public abstract class EditorconfigInvoker implements WorkAction<EditorconfigPara
     }
 
     private final Path basedirPath;
+    /** The number of files skipped because they do not look like text in their encoding */
+    private final AtomicInteger binaryFileCount = new AtomicInteger();
+    private final Path chunkStateFile;
+    private final Set<String> changedFiles;
+    private final Map<String, LineRanges> changedLines;
     private final Charset charset;
-    private final boolean failOnNoMatchingProperties;
-    private final ViolationHandler handler;
+    private final boolean check;
+    private final boolean failOnFormatViolation;
+    private final CountingViolationHandler handler;
+    private final Function<Logger, ViolationHandler> handlerFactory;
     private final Set<String> includedFiles;
+    private final boolean incremental;
+    private final long largeFileThreshold;
     private final LinterRegistry linterRegistry;
-    private final CollectingLogger log = new CollectingLogger(LogLevel.TRACE);
+    private final int maxFormatPasses;
+    private final CollectingLogger log;
+    private final LogLevel logLevel;
+    private final int parallelism;
     private final ResourceFactory resourceFactory;
+    private final Path resultFile;
+    /** The number of files actually written by {@link AtomicResource#store()} */
+    private final AtomicInteger rewrittenFileCount = new AtomicInteger();
+    private final Path stateFile;
+    private final Timings timings = new Timings();
+    private final Path timingsFile;
+    private final LogLevel violationLevel;
 
     @Inject
     public EditorconfigInvoker(EditorconfigParameters parameters) {
+        this.resultFile = Paths.get(parameters.getResultFile().get());
+        this.logLevel = LogLevel.valueOf(parameters.getLogLevel().get());
+        this.log = new CollectingLogger(logLevel,
+                resultFile.resolveSibling(resultFile.getFileName() + ".spill"), MAX_BUFFERED_MESSAGES);
+        this.failOnFormatViolation = parameters.getFailOnFormatViolation().get();
         if (parameters.getTaskClass().get().startsWith(EditorconfigCheckTask.class.getName())) {
-            this.handler = new ViolationCollector(parameters.getFailOnFormatViolation().get(), "./gradlew editorconfigFormat", log);
+            this.handlerFactory = l -> new ViolationCollector(failOnFormatViolation, FIX_COMMAND, l);
             this.resourceFactory = Resource::new;
+            this.check = true;
         } else if (parameters.getTaskClass().get().startsWith(EditorconfigFormatTask.class.getName())) {
-            this.handler = new FormattingHandler(parameters.getBackUp().get(), parameters.getBackupSuffix().get(), log);
-            this.resourceFactory = Resource::new;
+            final String backupSetDir = parameters.getBackupSetDir().get();
+            final Path backupSet = backupSetDir.isEmpty() ? null : Paths.get(backupSetDir);
+            /* The backups are made by AtomicResource outside of the source tree */
+            this.handlerFactory = l -> new FormattingHandler(false, "", l);
+            this.resourceFactory = (absFile, relFile, encoding) -> new AtomicResource(absFile, relFile, encoding,
+                    backupSet, rewrittenFileCount::incrementAndGet);
+            this.check = false;
         } else {
             throw new IllegalStateException(String.format("Expected %s or %s; got %s",
                     EditorconfigCheckTask.class.getName(), EditorconfigFormatTask.class.getName(), parameters.getTaskClass()));
         }
+        this.violationLevel = failOnFormatViolation ? LogLevel.ERROR : LogLevel.WARN;
+        this.handler = newHandler(log);
 
         this.includedFiles = parameters.getIncludedFiles().get();
         this.basedirPath = Paths.get(parameters.getBasedirPath().get());
         this.charset = Charset.forName(parameters.getCharset().get());
         final ClassLoader invokerCl = EditorconfigInvoker.class.getClassLoader();
-        this.linterRegistry = buildLinterRegistry(parameters.getAddLintersFromClassPath().get(), parameters.getLinters().get(), invokerCl, log);
-        this.failOnNoMatchingProperties = parameters.getFailOnNoMatchingProperties().get();
+        this.linterRegistry = buildLinterRegistry(parameters.getAddLintersFromClassPath().get(),
+                Paths.get(parameters.getLinterIndexFile().get()), parameters.getLinters().get(), invokerCl, log);
+        this.incremental = parameters.getIncremental().get();
+        this.changedFiles = parameters.getChangedFiles().get();
+        this.changedLines = new HashMap<>();
+        for (Map.Entry<String, String> e : parameters.getChangedLines().get().entrySet()) {
+            changedLines.put(e.getKey(), LineRanges.parse(e.getValue()));
+        }
+        this.stateFile = Paths.get(parameters.getStateFile().get());
+        this.chunkStateFile = Paths.get(parameters.getChunkStateFile().get());
+        this.parallelism = parameters.getParallelism().get();
+        this.largeFileThreshold = parameters.getLargeFileThreshold().get();
+        this.maxFormatPasses = parameters.getMaxFormatPasses().get();
+        this.timingsFile = Paths.get(parameters.getTimingsFile().get());
     }
 
     @Override
     public void execute() {
-        FormatException formatException = null;
         try {
 
             final ResourcePropertiesService resourcePropertiesService = ResourcePropertiesService.builder() //
-                    .cache(Caches.permanent()) //
+                    .cache(new SharedEditorConfigCache()) //
                     .build();
+            final IncrementalState previousState = incremental ? IncrementalState.read(stateFile) : null;
+            final FileOutcomes outcomes = new FileOutcomes();
             handler.startFiles();
-            boolean propertyMatched = false;
-            for (String includedFile : includedFiles) {
-                final Path absFile = Paths.get(includedFile);
-                final Path file = basedirPath.relativize(absFile);
-                log.info("Processing file '{}'", file);
-                final ResourceProperties editorConfigProperties = resourcePropertiesService
-                        .queryProperties(Resources.ofPath(absFile, charset));
-                if (!editorConfigProperties.getProperties().isEmpty()) {
-                    propertyMatched = true;
-                    final Charset useEncoding = Charset
-                            .forName(editorConfigProperties.getValue(PropertyType.charset, charset.name(), true));
-                    final Resource resource = resourceFactory.createResource(absFile, file, useEncoding);
-                    final List<Linter> filteredLinters = linterRegistry.filter(file);
-                    ViolationHandler.ReturnState state = ViolationHandler.ReturnState.RECHECK;
-                    while (state != ViolationHandler.ReturnState.FINISHED) {
-                        for (Linter linter : filteredLinters) {
-                            if (log.isDebugEnabled()) {
-                                log.debug("Processing file '{}' using linter {}", file, linter.getClass().getName());
-                            }
-                            handler.startFile(resource);
-                            linter.process(resource, editorConfigProperties, handler);
+            final ForkJoinPool pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+            try {
+                final List<Future<FileOutcome>> pending = new ArrayList<>();
+                for (String includedFile : includedFiles) {
+                    final Path absFile = Paths.get(includedFile);
+                    final Path file = basedirPath.relativize(absFile);
+                    FileOutcome outcome = null;
+                    if (previousState != null && !changedFiles.contains(includedFile)) {
+                        final FileResult previous = previousState.get(file.toString());
+                        if (previous != null && previous.isUpToDate(absFile)) {
+                            outcome = new FileOutcome(previous, previous.getMessages(), true);
                         }
-                        state = handler.endFile();
+                    }
+                    if (pool != null) {
+                        pending.add(outcome != null ? CompletableFuture.completedFuture(outcome)
+                                : pool.submit(() -> processFileInIsolation(absFile, file, resourcePropertiesService)));
+                    } else {
+                        outcomes.add(outcome != null ? outcome
+                                : processFile(absFile, file, resourcePropertiesService, log, handler, null));
                     }
                 }
-            }
-            if (!propertyMatched) {
-                if (failOnNoMatchingProperties) {
-                    log.error("No .editorconfig properties applicable for files under '{}'", basedirPath);
-                } else {
-                    log.warn("No .editorconfig properties applicable for files under '{}'", basedirPath);
+                /* Consume the results in the order of the files so that the log output is deterministic */
+                for (Future<FileOutcome> future : pending) {
+                    outcomes.add(getOutcome(future));
+                }
+            } finally {
+                if (pool != null) {
+                    pool.shutdownNow();
                 }
             }
-            handler.endFiles();
+            outcomes.state.write(chunkStateFile);
+            timings.write(timingsFile);
+            /*
+             * The task sums the counts up over all work items and reports them once. Neither the per-file handlers
+             * used in parallel mode nor the shared one see the files proven clean on the byte level, so we count here
+             */
+            log.count(BINARY_FILES, binaryFileCount.get());
+            log.count(CHANGED_FILES, outcomes.changedFileCount);
+            log.count(PROCESSED_FILES, outcomes.processedFileCount);
+            log.count(PROPERTY_MATCHED_FILES, outcomes.propertyMatchedFileCount);
+            log.count(REPLAYED_FILES, outcomes.replayedFileCount);
+            log.count(REWRITTEN_FILES, rewrittenFileCount.get());
+            log.count(VIOLATIONS, outcomes.replayedViolationCount + outcomes.processedViolationCount);
         } catch (IOException e) {
             throw new GradleException(e.getMessage(), e);
         } catch (FormatException e) {
             log.fail(e.getMessage());
-            formatException = e;
         }
-        final StringBuilder msg = new StringBuilder(FORMAT_EXCEPTION_PREFIX);
         try {
-            log.serialize(msg);
-        } catch (IOException e1) {
-            throw new RuntimeException(e1);
+            log.write(resultFile);
+        } catch (IOException e) {
+            throw new GradleException("Could not write " + resultFile, e);
+        }
+    }
+
+    /**
+     * @param handlerLog the {@link Logger} for the new {@link ViolationHandler}
+     * @return a new {@link CountingViolationHandler} that logs the {@link Violation}s as
+     *         {@link CollectingLogger.ViolationMessage}s in {@code editorconfigCheck}
+     */
+    private CountingViolationHandler newHandler(CollectingLogger handlerLog) {
+        return new CountingViolationHandler(handlerFactory.apply(handlerLog), check ? handlerLog : null,
+                violationLevel);
+    }
+
+    /**
+     * @param future the {@link Future} to wait for
+     * @return the {@link FileOutcome} produced by the given {@code future}
+     * @throws IOException if the processing of the file failed with an {@link IOException}
+     */
+    private static FileOutcome getOutcome(Future<FileOutcome> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GradleException("Interrupted while processing files", e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new GradleException(cause.getMessage(), cause);
         }
-        throw new RuntimeException(msg.toString(), formatException);
+    }
 
+    /**
+     * Processes a single file with a dedicated {@link ViolationHandler} and a dedicated {@link CollectingLogger} so
+     * that several files can be processed concurrently.
+     *
+     * @param absFile the absolute path of the file to process
+     * @param file the path of the file relative to {@link #basedirPath}
+     * @param resourcePropertiesService the service to query the {@code .editorconfig} properties
+     * @return the {@link FileOutcome}
+     * @throws IOException on I/O problems
+     */
+    private FileOutcome processFileInIsolation(Path absFile, Path file,
+            ResourcePropertiesService resourcePropertiesService) throws IOException {
+        final CollectingLogger fileLog = new CollectingLogger(logLevel);
+        final CountingViolationHandler fileHandler = newHandler(fileLog);
+        fileHandler.startFiles();
+        final List<Map.Entry<String, String>> messages = new ArrayList<>();
+        return processFile(absFile, file, resourcePropertiesService, fileLog, fileHandler, messages);
+    }
+
+    /**
+     * Lints or formats a single file.
+     *
+     * @param absFile the absolute path of the file to process
+     * @param file the path of the file relative to {@link #basedirPath}
+     * @param resourcePropertiesService the service to query the {@code .editorconfig} properties
+     * @param fileLog the {@link CollectingLogger} to log to
+     * @param fileHandler the {@link ViolationHandler} to use
+     * @param messages if not {@code null}, all messages logged to {@code fileLog} will be copied to this {@link List}
+     *        so that they can be appended to {@link #log} later
+     * @return the {@link FileOutcome}
+     * @throws IOException on I/O problems
+     */
+    private FileOutcome processFile(Path absFile, Path file, ResourcePropertiesService resourcePropertiesService,
+            CollectingLogger fileLog, CountingViolationHandler fileHandler, List<Map.Entry<String, String>> messages)
+            throws IOException {
+        final int logMark = fileLog.size();
+        final int violationMark = fileHandler.getViolationCount();
+        final long start = System.nanoTime();
+        fileHandler.setCurrentFile(file.toString(), changedLines.get(absFile.toString()));
+        final boolean propertyMatched = lintFile(absFile, file, resourcePropertiesService, fileLog, fileHandler);
+        final long durationNanos = System.nanoTime() - start;
+        timings.addFile(file.toString(), durationNanos);
+        if (messages != null) {
+            messages.addAll(fileLog.getMessages(logMark));
+        }
+        final FileResult result = new FileResult(file.toString(), Files.size(absFile),
+                Files.getLastModifiedTime(absFile).toMillis(), durationNanos, propertyMatched,
+                fileHandler.getViolationCount() - violationMark, fileLog.getWarningsAndErrors(logMark));
+        return new FileOutcome(result, messages, false);
+    }
+
+    /**
+     * Runs the applicable {@link Linter}s on a single file.
+     *
+     * @param absFile the absolute path of the file to process
+     * @param file the path of the file relative to {@link #basedirPath}
+     * @param resourcePropertiesService the service to query the {@code .editorconfig} properties
+     * @param fileLog the {@link CollectingLogger} to log to
+     * @param fileHandler the {@link ViolationHandler} to use
+     * @return {@code true} if any {@code .editorconfig} property was applicable to the given file
+     * @throws IOException on I/O problems
+     */
+    private boolean lintFile(Path absFile, Path file, ResourcePropertiesService resourcePropertiesService,
+            CollectingLogger fileLog, CountingViolationHandler fileHandler) throws IOException {
+        fileLog.info("Processing file '{}'", file);
+        final ResourceProperties editorConfigProperties;
+        long start = System.nanoTime();
+        /* The cache behind the service is shared by all threads */
+        synchronized (resourcePropertiesService) {
+            editorConfigProperties = resourcePropertiesService.queryProperties(Resources.ofPath(absFile, charset));
+        }
+        start = lap(Timings.PROPERTIES, start);
+        if (editorConfigProperties.getProperties().isEmpty()) {
+            return false;
+        }
+        final Charset useEncoding = Charset
+                .forName(editorConfigProperties.getValue(PropertyType.charset, charset.name(), true));
+        final List<Linter> filteredLinters = linterRegistry.filter(file);
+        final boolean textLinterOnly = filteredLinters.size() == 1
+                && TEXT_LINTER.equals(filteredLinters.get(0).getClass().getName());
+        final boolean streamed = check && textLinterOnly && largeFileThreshold >= 0
+                && Files.size(absFile) > largeFileThreshold;
+        /*
+         * The byte level check below reads the whole file anyway, so read it once for both the binary detection and
+         * that check. Other files are sniffed at their beginning only.
+         */
+        final byte[] bytes = textLinterOnly && !streamed ? Files.readAllBytes(absFile) : null;
+        final boolean binary = bytes != null ? BinaryFileDetector.isBinary(bytes, bytes.length, useEncoding)
+                : BinaryFileDetector.isBinary(absFile, useEncoding);
+        start = lap(Timings.BINARY_DETECTION, start);
+        if (binary) {
+            fileLog.debug("Skipping binary file '{}'", file);
+            binaryFileCount.incrementAndGet();
+            return true;
+        }
+        if (textLinterOnly) {
+            final boolean clean = isClean(absFile, bytes, useEncoding, editorConfigProperties);
+            start = lap(Timings.BYTE_LEVEL_CHECK, start);
+            if (clean) {
+                if (fileLog.isDebugEnabled()) {
+                    fileLog.debug("Processing file '{}' using linter {} on the byte level", file, TEXT_LINTER);
+                    fileLog.debug("No formatting violations found in file '{}'", file);
+                }
+                return true;
+            }
+        }
+        if (streamed) {
+            scanLargeFile(absFile, file, useEncoding, editorConfigProperties, fileLog, fileHandler);
+            lap(Timings.LARGE_FILE_SCAN, start);
+            return true;
+        }
+        final Resource resource = resourceFactory.createResource(absFile, file, useEncoding);
+        /* The content is loaded lazily; load it here so that the decoding is not attributed to the first linter */
+        resource.getText();
+        lap(Timings.DECODE, start);
+        fileHandler.pollReportingLinters();
+        final Set<String> all = new HashSet<>();
+        for (Linter linter : filteredLinters) {
+            all.add(linter.getClass().getName());
+        }
+        /* The linters that have seen the current content of the resource since the last fixes were applied */
+        final Set<String> seen = new HashSet<>();
+        Set<String> pending = all;
+        int pass = 0;
+        boolean settled = true;
+        while (true) {
+            if (pass > 0 && pass >= maxFormatPasses) {
+                /* The task warns about the file based on the timings */
+                settled = false;
+                break;
+            }
+            pass++;
+            for (Linter linter : filteredLinters) {
+                final String linterClassName = linter.getClass().getName();
+                if (!pending.contains(linterClassName)) {
+                    continue;
+                }
+                if (fileLog.isDebugEnabled()) {
+                    fileLog.debug("Processing file '{}' using linter {}", file, linterClassName);
+                }
+                fileHandler.startFile(resource);
+                final long linterStart = System.nanoTime();
+                linter.process(resource, editorConfigProperties, fileHandler);
+                timings.addLinter(linterClassName, System.nanoTime() - linterStart);
+                seen.add(linterClassName);
+            }
+            final long endStart = System.nanoTime();
+            final ViolationHandler.ReturnState returnState = fileHandler.endFile();
+            if (!check) {
+                lap(Timings.APPLY_FIXES, endStart);
+            }
+            if (returnState == ViolationHandler.ReturnState.RECHECK) {
+                /*
+                 * The fixes were applied, so no linter has seen the current content; the linters that produced them
+                 * rerun first as their fixes are the likeliest to need further ones
+                 */
+                seen.clear();
+                pending = fileHandler.pollReportingLinters();
+                if (pending.isEmpty()) {
+                    pending = all;
+                }
+            } else if (seen.containsAll(all)) {
+                /* All linters have seen the current content */
+                break;
+            } else {
+                /* A final pass with the linters that have not seen the current content */
+                pending = new HashSet<>(all);
+                pending.removeAll(seen);
+                fileHandler.pollReportingLinters();
+            }
+        }
+        if (pass > 1 && fileLog.isDebugEnabled()) {
+            fileLog.debug("Processed file '{}' in {} passes", file, pass);
+        }
+        if (!check) {
+            timings.addPasses(file.toString(), pass, settled);
+        }
+        return true;
+    }
+
+    /**
+     * Records the time elapsed since {@code start} under the given {@code phase}.
+     *
+     * @param phase one of the phase constants of {@link Timings}
+     * @param start the start of the phase as returned by {@link System#nanoTime()}
+     * @return the end of the phase as returned by {@link System#nanoTime()}
+     */
+    private long lap(String phase, long start) {
+        final long end = System.nanoTime();
+        timings.addPhase(phase, end - start);
+        return end;
+    }
+
+    /**
+     * Tells whether the given file complies with {@code end_of_line}, {@code trim_trailing_whitespace} and
+     * {@code insert_final_newline} without decoding it. These are all the properties checked by {@value #TEXT_LINTER},
+     * so the result can stand for running the linters only for a file {@value #TEXT_LINTER} is the only
+     * {@link Linter} of.
+     *
+     * @param absFile the absolute path of the file to check
+     * @param bytes the content of the file if it was read already, otherwise {@code null}
+     * @param encoding the encoding of the file
+     * @param properties the {@code .editorconfig} properties applicable to the file
+     * @return {@code true} if the file is proven to have no violations
+     * @throws IOException on I/O problems
+     */
+    private static boolean isClean(Path absFile, byte[] bytes, Charset encoding, ResourceProperties properties)
+            throws IOException {
+        final EndOfLineValue endOfLine = properties.getValue(PropertyType.end_of_line, null, false);
+        final String eol = endOfLine == null ? null : endOfLine.getEndOfLineString();
+        final Boolean trim = properties.getValue(PropertyType.trim_trailing_whitespace, null, false);
+        final Boolean insertFinalNewline = properties.getValue(PropertyType.insert_final_newline, null, false);
+        return bytes != null ? LineScanner.isClean(bytes, encoding, eol, trim, insertFinalNewline)
+                : LineScanner.isClean(absFile, encoding, eol, trim, insertFinalNewline);
+    }
+
+    /**
+     * Checks a file larger than {@link #largeFileThreshold} using {@link LineScanner} so that it does not need to be
+     * held on the heap as a whole.
+     *
+     * @param absFile the absolute path of the file to check
+     * @param file the path of the file relative to {@link #basedirPath}
+     * @param encoding the encoding of the file
+     * @param properties the {@code .editorconfig} properties applicable to the file
+     * @param fileLog the {@link CollectingLogger} to log to
+     * @param fileHandler the {@link CountingViolationHandler} to count the violations with
+     * @throws IOException on I/O problems
+     */
+    private void scanLargeFile(Path absFile, Path file, Charset encoding, ResourceProperties properties,
+            CollectingLogger fileLog, CountingViolationHandler fileHandler) throws IOException {
+        fileLog.debug("Streaming large file '{}'", file);
+        final EndOfLineValue endOfLine = properties.getValue(PropertyType.end_of_line, null, false);
+        final int violationMark = fileHandler.getViolationCount();
+        LineScanner.scan(absFile, encoding, endOfLine == null ? null : endOfLine.getEndOfLineString(),
+                endOfLine == null ? null : endOfLine.name(),
+                properties.getValue(PropertyType.trim_trailing_whitespace, null, false),
+                properties.getValue(PropertyType.insert_final_newline, null, false),
+                (line, column, message, property, value) -> fileHandler.report(TEXT_LINTER, line,
+                        "{}@{},{}: {} - violates {} = {}, reported by {}", file, line, column, message, property, value,
+                        TEXT_LINTER));
+        if (fileHandler.getViolationCount() == violationMark) {
+            fileLog.debug("No formatting violations found in file '{}'", file);
+        }
+    }
+
+    /**
+     * The result of processing or replaying a single file.
+     */
+    static class FileOutcome {
+        /** The messages to append to {@link EditorconfigInvoker#log} or {@code null} if they were logged already */
+        private final List<Map.Entry<String, String>> messages;
+        private final boolean replayed;
+        private final FileResult result;
+
+        FileOutcome(FileResult result, List<Entry<String, String>> messages, boolean replayed) {
+            super();
+            this.result = result;
+            this.messages = messages;
+            this.replayed = replayed;
+        }
+    }
+
+    /**
+     * Aggregates {@link FileOutcome}s in the order of the files.
+     */
+    class FileOutcomes {
+        private int changedFileCount;
+        private int processedFileCount;
+        private int processedViolationCount;
+        private int propertyMatchedFileCount;
+        private int replayedFileCount;
+        private int replayedViolationCount;
+        private final IncrementalState state = new IncrementalState();
+
+        void add(FileOutcome outcome) throws IOException {
+            if (outcome.messages != null) {
+                log.append(outcome.messages);
+            }
+            /* All messages of the preceding files are final at this point */
+            log.spillIfFull();
+            final FileResult result = outcome.result;
+            state.put(result);
+            if (result.isPropertyMatched()) {
+                propertyMatchedFileCount++;
+            }
+            if (outcome.replayed) {
+                replayedFileCount++;
+                replayedViolationCount += result.getViolationCount();
+            } else {
+                processedFileCount++;
+                processedViolationCount += result.getViolationCount();
+                if (result.getViolationCount() > 0) {
+                    changedFileCount++;
+                }
+            }
+        }
     }
 
-}
\ No newline at end of file
+}
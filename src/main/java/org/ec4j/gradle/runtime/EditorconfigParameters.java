@@ -18,6 +18,7 @@ package org.ec4j.gradle.runtime;
 
 import org.ec4j.gradle.LinterConfig;
 import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.MapProperty;
 import org.gradle.api.provider.Property;
 import org.gradle.api.provider.SetProperty;
 import org.gradle.workers.WorkParameters;
@@ -39,14 +40,83 @@ public interface EditorconfigParameters extends WorkParameters, Serializable {
 
     Property<Boolean> getFailOnFormatViolation();
 
-    Property<Boolean> getBackUp();
-
-    Property<String> getBackupSuffix();
+    /**
+     * @return the absolute path of the backup set directory created by {@link Backups#newSet(java.nio.file.Path)}
+     *         or an empty string if no backups should be made
+     */
+    Property<String> getBackupSetDir();
 
     Property<Boolean> getAddLintersFromClassPath();
 
+    /**
+     * @return the absolute path of the file where the linters found on the class path are indexed; the file name is
+     *         specific to the content of the class path so that a stale index is never used
+     */
+    Property<String> getLinterIndexFile();
+
     ListProperty<LinterConfig> getLinters();
 
-    Property<Boolean> getFailOnNoMatchingProperties();
+    /**
+     * @return the name of the {@link org.ec4j.lint.api.Logger.LogLevel} corresponding to the log level of the task;
+     *         messages below it are not collected at all
+     */
+    Property<String> getLogLevel();
+
+    /**
+     * @return the number of threads to process the files with; {@code 1} means sequential processing
+     */
+    Property<Integer> getParallelism();
+
+    /**
+     * @return the size in bytes above which the files checked solely by {@code org.ec4j.linters.TextLinter} are
+     *         scanned by {@link LineScanner} instead of being loaded as a whole; negative to disable
+     */
+    Property<Long> getLargeFileThreshold();
+
+    /**
+     * @return the maximal number of times the {@link org.ec4j.lint.api.Linter}s may process a single file
+     */
+    Property<Integer> getMaxFormatPasses();
+
+    /**
+     * @return {@code true} if only {@link #getChangedFiles()} should be processed and the results for the remaining
+     *         {@link #getIncludedFiles()} should be replayed from {@link #getStateFile()}
+     */
+    Property<Boolean> getIncremental();
+
+    /**
+     * @return the subset of {@link #getIncludedFiles()} that were added or modified since the last run
+     */
+    SetProperty<String> getChangedFiles();
+
+    /**
+     * @return the absolute path of the file where the per-file results of the previous run are stored
+     */
+    Property<String> getStateFile();
+
+    /**
+     * @return the absolute path of the file where the per-file results of this work item should be written; the task
+     *         merges these into {@link #getStateFile()} once all work items are finished
+     */
+    Property<String> getChunkStateFile();
+
+    /**
+     * @return the absolute path of the file where this work item should write its log messages and the failure
+     *         message, if any; see {@link org.ec4j.gradle.CollectingLogger#write(java.nio.file.Path)}
+     */
+    Property<String> getResultFile();
+
+    /**
+     * @return the absolute path of the file where this work item should write its {@link Timings}; the task merges
+     *         these into the timing report once all work items are finished
+     */
+    Property<String> getTimingsFile();
+
+    /**
+     * @return a {@link java.util.Map} from absolute file paths to the {@link LineRanges} in which the
+     *         {@link org.ec4j.lint.api.Violation}s should be reported or fixed; the files not present in the
+     *         {@link java.util.Map} are processed as a whole
+     */
+    MapProperty<String, String> getChangedLines();
 
 }
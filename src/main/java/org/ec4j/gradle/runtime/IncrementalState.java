@@ -0,0 +1,239 @@
+/*
+ * Copyright (c) 2018 EditorConfig Gradle Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ec4j.gradle.runtime;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.ec4j.gradle.CollectingLogger.ViolationMessage;
+
+/**
+ * The per-file results of the last run of {@link EditorconfigInvoker} persisted between builds so that the results of
+ * unchanged files can be replayed rather than recomputed.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+public class IncrementalState {
+
+    /**
+     * The result of processing a single file.
+     */
+    public static class FileResult {
+        private final long durationNanos;
+        private final long lastModified;
+        private final long length;
+        private final List<Map.Entry<String, String>> messages;
+        private final boolean propertyMatched;
+        private final String relativePath;
+        private final int violationCount;
+
+        public FileResult(String relativePath, long length, long lastModified, long durationNanos,
+                boolean propertyMatched, int violationCount, List<Entry<String, String>> messages) {
+            super();
+            this.relativePath = relativePath;
+            this.length = length;
+            this.lastModified = lastModified;
+            this.durationNanos = durationNanos;
+            this.propertyMatched = propertyMatched;
+            this.violationCount = violationCount;
+            this.messages = messages;
+        }
+
+        /**
+         * @return the time it took to process the file in nanoseconds
+         */
+        public long getDurationNanos() {
+            return durationNanos;
+        }
+
+        /**
+         * @return the size of the file in bytes at the time when it was processed
+         */
+        public long getLength() {
+            return length;
+        }
+
+        /**
+         * @param file the file to compare with
+         * @return {@code true} if the size and the last modification time of the given {@code file} are the same as
+         *         when this {@link FileResult} was recorded
+         * @throws IOException on I/O problems
+         */
+        public boolean isUpToDate(Path file) throws IOException {
+            return Files.size(file) == length && Files.getLastModifiedTime(file).toMillis() == lastModified;
+        }
+
+        /**
+         * @return the WARN and ERROR log message {@link Entry}s produced when processing the file, including a
+         *         {@link ViolationMessage} for every violation found in the file. Keys are
+         *         {@link org.ec4j.lint.api.Logger.LogLevel}s and values are the messages.
+         */
+        public List<Map.Entry<String, String>> getMessages() {
+            return messages;
+        }
+
+        /**
+         * @return the path of the file relative to the project directory
+         */
+        public String getRelativePath() {
+            return relativePath;
+        }
+
+        /**
+         * @return the number of violations found in the file
+         */
+        public int getViolationCount() {
+            return violationCount;
+        }
+
+        /**
+         * @return {@code true} if at least one {@code .editorconfig} property was applicable to the file
+         */
+        public boolean isPropertyMatched() {
+            return propertyMatched;
+        }
+    }
+
+    private static final int VERSION = 3;
+
+    /**
+     * @param path the state file to read
+     * @return the {@link IncrementalState} stored in the given {@code path} or {@code null} if the file does not exist
+     *         or has an unexpected format
+     * @throws IOException on I/O problems
+     */
+    public static IncrementalState read(Path path) throws IOException {
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != VERSION) {
+                return null;
+            }
+            final IncrementalState result = new IncrementalState();
+            final int fileCount = in.readInt();
+            for (int i = 0; i < fileCount; i++) {
+                final String relativePath = readString(in);
+                final long length = in.readLong();
+                final long lastModified = in.readLong();
+                final long durationNanos = in.readLong();
+                final boolean propertyMatched = in.readBoolean();
+                final int violationCount = in.readInt();
+                final int messageCount = in.readInt();
+                final List<Entry<String, String>> messages = new ArrayList<>(messageCount);
+                for (int j = 0; j < messageCount; j++) {
+                    final boolean violation = in.readBoolean();
+                    final String file = violation ? readString(in) : null;
+                    final String linter = violation ? readString(in) : null;
+                    final Entry<String, String> message = new AbstractMap.SimpleImmutableEntry<>(readString(in),
+                            readString(in));
+                    messages.add(violation ? new ViolationMessage(file, linter, message) : message);
+                }
+                result.put(new FileResult(relativePath, length, lastModified, durationNanos, propertyMatched,
+                        violationCount, Collections.unmodifiableList(messages)));
+            }
+            return result;
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        final byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeString(String value, DataOutputStream out) throws IOException {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private final Map<String, FileResult> files = new LinkedHashMap<>();
+
+    /**
+     * @param relativePath the path relative to the project directory
+     * @return the {@link FileResult} stored for the given {@code relativePath} or {@code null}
+     */
+    public FileResult get(String relativePath) {
+        return files.get(relativePath);
+    }
+
+    /**
+     * Adds or replaces the given {@link FileResult}.
+     *
+     * @param fileResult the {@link FileResult} to store
+     */
+    public void put(FileResult fileResult) {
+        files.put(fileResult.getRelativePath(), fileResult);
+    }
+
+    /**
+     * Adds or replaces all {@link FileResult}s of the given {@code other} {@link IncrementalState}.
+     *
+     * @param other the {@link IncrementalState} to take the {@link FileResult}s from
+     */
+    public void putAll(IncrementalState other) {
+        files.putAll(other.files);
+    }
+
+    /**
+     * Writes this {@link IncrementalState} to the given {@code path}.
+     *
+     * @param path where to write
+     * @throws IOException on I/O problems
+     */
+    public void write(Path path) throws IOException {
+        Files.createDirectories(path.getParent());
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.writeInt(VERSION);
+            out.writeInt(files.size());
+            for (FileResult file : files.values()) {
+                writeString(file.relativePath, out);
+                out.writeLong(file.length);
+                out.writeLong(file.lastModified);
+                out.writeLong(file.durationNanos);
+                out.writeBoolean(file.propertyMatched);
+                out.writeInt(file.violationCount);
+                out.writeInt(file.messages.size());
+                for (Entry<String, String> message : file.messages) {
+                    final boolean violation = message instanceof ViolationMessage;
+                    out.writeBoolean(violation);
+                    if (violation) {
+                        writeString(((ViolationMessage) message).getFile(), out);
+                        writeString(((ViolationMessage) message).getLinter(), out);
+                    }
+                    writeString(message.getKey(), out);
+                    writeString(message.getValue(), out);
+                }
+            }
+        }
+    }
+
+}
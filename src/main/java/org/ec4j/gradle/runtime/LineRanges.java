@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2018 EditorConfig Gradle Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ec4j.gradle.runtime;
+
+import java.util.Arrays;
+
+/**
+ * An immutable set of one based inclusive line ranges, such as the lines added or modified in a file according to
+ * {@code git diff}. The {@link String} form used to pass the ranges to the worker is e.g. {@code 1-3,10-10}.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+public class LineRanges {
+
+    /**
+     * @param ranges the {@link String} form of the ranges, e.g. {@code 1-3,10-10}; an empty string denotes no lines
+     * @return new {@link LineRanges}
+     */
+    public static LineRanges parse(String ranges) {
+        if (ranges.isEmpty()) {
+            return new LineRanges(new int[0], new int[0]);
+        }
+        final String[] parts = ranges.split(",");
+        final int[] starts = new int[parts.length];
+        final int[] ends = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            final int dash = parts[i].indexOf('-');
+            starts[i] = Integer.parseInt(parts[i].substring(0, dash));
+            ends[i] = Integer.parseInt(parts[i].substring(dash + 1));
+        }
+        return new LineRanges(starts, ends);
+    }
+
+    /** Sorted by the start line as produced by {@code git diff} */
+    private final int[] ends;
+    private final int[] starts;
+
+    LineRanges(int[] starts, int[] ends) {
+        super();
+        this.starts = starts;
+        this.ends = ends;
+    }
+
+    /**
+     * @param line the one based line number
+     * @return {@code true} if the given {@code line} lies within any of the ranges
+     */
+    public boolean contains(int line) {
+        int i = Arrays.binarySearch(starts, line);
+        if (i < 0) {
+            /* the index of the last range starting before the line */
+            i = -i - 2;
+        }
+        return i >= 0 && line <= ends[i];
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder result = new StringBuilder();
+        for (int i = 0; i < starts.length; i++) {
+            if (i > 0) {
+                result.append(',');
+            }
+            result.append(starts[i]).append('-').append(ends[i]);
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,300 @@
+/*
+ * Copyright (c) 2018 EditorConfig Gradle Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ec4j.gradle.runtime;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Checks the line oriented {@code .editorconfig} properties {@code end_of_line}, {@code trim_trailing_whitespace} and
+ * {@code insert_final_newline} the same way as {@code org.ec4j.linters.TextLinter} does, but without loading the
+ * whole file to the heap: the file is memory mapped window by window and decoded into a fixed size
+ * {@link CharBuffer}. Meant for checking large files. {@link #isClean(Path, Charset, String, Boolean, Boolean)} offers
+ * a cheaper variant working on raw bytes that just tells whether there is any violation at all.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+class LineScanner {
+
+    /**
+     * Receives the violations found by {@link LineScanner}.
+     */
+    interface ViolationSink {
+        /**
+         * @param line the one based line number
+         * @param column the one based column number
+         * @param message the description of the fix
+         * @param property the name of the violated property
+         * @param value the value of the violated property
+         */
+        void violation(int line, int column, String message, String property, String value);
+    }
+
+    private static final int CHAR_BUFFER_SIZE = 64 * 1024;
+    private static final String END_OF_LINE = "end_of_line";
+    private static final String INSERT_FINAL_NEWLINE = "insert_final_newline";
+    private static final String TRIM_TRAILING_WHITESPACE = "trim_trailing_whitespace";
+    /** The size of the memory mapped window; kept well below 2 GB so that arbitrarily large files can be scanned */
+    private static final int WINDOW_SIZE = 64 * 1024 * 1024;
+
+    /** The bytes of the characters {@link LineScanner} looks at in all ASCII compatible encodings */
+    private static final byte[] SIGNIFICANT_ASCII = { ' ', '\t', '\r', '\n' };
+
+    /**
+     * @param count the number of characters to delete
+     * @return the message of a deletion, worded like the one of {@code org.ec4j.linters.TextLinter}
+     */
+    private static String delete(int count) {
+        return "Delete " + count + (count == 1 ? " character" : " characters");
+    }
+
+    private static String escape(String eol) {
+        return eol.replace("\r", "\\r").replace("\n", "\\n");
+    }
+
+    /**
+     * Scans the given file.
+     *
+     * @param file the file to scan
+     * @param charset the encoding of the file
+     * @param endOfLine the expected line terminator or {@code null} if {@code end_of_line} is not set
+     * @param endOfLineValue the value of {@code end_of_line} to report
+     * @param trimTrailingWhitespace the value of {@code trim_trailing_whitespace} or {@code null} if not set
+     * @param insertFinalNewline the value of {@code insert_final_newline} or {@code null} if not set
+     * @param sink the {@link ViolationSink} to notify
+     * @throws IOException on I/O problems
+     */
+    static void scan(Path file, Charset charset, String endOfLine, String endOfLineValue,
+            Boolean trimTrailingWhitespace, Boolean insertFinalNewline, ViolationSink sink) throws IOException {
+        new LineScanner(endOfLine, endOfLineValue, trimTrailingWhitespace, insertFinalNewline, sink).scan(file,
+                charset);
+    }
+
+    /**
+     * Tells whether the given file complies with the given properties by scanning its bytes without decoding them.
+     *
+     * @param file the file to scan
+     * @param charset the encoding of the file
+     * @param endOfLine the expected line terminator or {@code null} if {@code end_of_line} is not set
+     * @param trimTrailingWhitespace the value of {@code trim_trailing_whitespace} or {@code null} if not set
+     * @param insertFinalNewline the value of {@code insert_final_newline} or {@code null} if not set
+     * @return {@code true} if the file has no violations, {@code false} if it has some or if the given
+     *         {@code charset} does not encode space, tab, CR and LF the same way as ASCII does
+     * @throws IOException on I/O problems
+     */
+    static boolean isClean(Path file, Charset charset, String endOfLine, Boolean trimTrailingWhitespace,
+            Boolean insertFinalNewline) throws IOException {
+        if (!isAsciiCompatible(charset)) {
+            return false;
+        }
+        final boolean[] violated = new boolean[1];
+        final LineScanner scanner = new LineScanner(endOfLine, null, trimTrailingWhitespace, insertFinalNewline,
+                (line, column, message, property, value) -> violated[0] = true);
+        final byte[] buffer = new byte[CHAR_BUFFER_SIZE];
+        long size = 0;
+        try (InputStream in = Files.newInputStream(file)) {
+            int read;
+            while (!violated[0] && (read = in.read(buffer)) >= 0) {
+                size += read;
+                for (int i = 0; i < read; i++) {
+                    /* The bytes of non-ASCII characters are all treated as non-whitespace */
+                    scanner.accept((char) (buffer[i] & 0xff));
+                }
+            }
+        }
+        if (!violated[0]) {
+            scanner.end(size == 0);
+        }
+        return !violated[0];
+    }
+
+    /**
+     * Tells whether the given content complies with the given properties by scanning its bytes without decoding
+     * them. Like {@link #isClean(Path, Charset, String, Boolean, Boolean)} but for a file read into memory already.
+     *
+     * @param bytes the content of the file
+     * @param charset the encoding of the file
+     * @param endOfLine the expected line terminator or {@code null} if {@code end_of_line} is not set
+     * @param trimTrailingWhitespace the value of {@code trim_trailing_whitespace} or {@code null} if not set
+     * @param insertFinalNewline the value of {@code insert_final_newline} or {@code null} if not set
+     * @return {@code true} if the content has no violations, {@code false} if it has some or if the given
+     *         {@code charset} does not encode space, tab, CR and LF the same way as ASCII does
+     */
+    static boolean isClean(byte[] bytes, Charset charset, String endOfLine, Boolean trimTrailingWhitespace,
+            Boolean insertFinalNewline) {
+        if (!isAsciiCompatible(charset)) {
+            return false;
+        }
+        final boolean[] violated = new boolean[1];
+        final LineScanner scanner = new LineScanner(endOfLine, null, trimTrailingWhitespace, insertFinalNewline,
+                (line, column, message, property, value) -> violated[0] = true);
+        for (int i = 0; !violated[0] && i < bytes.length; i++) {
+            scanner.accept((char) (bytes[i] & 0xff));
+        }
+        if (!violated[0]) {
+            scanner.end(bytes.length == 0);
+        }
+        return !violated[0];
+    }
+
+    private static boolean isAsciiCompatible(Charset charset) {
+        return charset.canEncode()
+                && Arrays.equals(SIGNIFICANT_ASCII, new String(SIGNIFICANT_ASCII, StandardCharsets.US_ASCII)
+                        .getBytes(charset));
+    }
+
+    private int column = 1;
+    private final String endOfLine;
+    private final String endOfLineValue;
+    private final Boolean insertFinalNewline;
+    /** The terminator of the last line or {@code null} if the last line has none */
+    private String lastTerminator;
+    private int lastTerminatorColumn;
+    private int line = 1;
+    private boolean pendingCr;
+    private final ViolationSink sink;
+    private final boolean trimTrailingWhitespace;
+    private int whitespaceColumn;
+    private int whitespaceCount;
+
+    LineScanner(String endOfLine, String endOfLineValue, Boolean trimTrailingWhitespace, Boolean insertFinalNewline,
+            ViolationSink sink) {
+        super();
+        this.endOfLine = endOfLine;
+        this.endOfLineValue = endOfLineValue;
+        this.trimTrailingWhitespace = Boolean.TRUE.equals(trimTrailingWhitespace);
+        this.insertFinalNewline = insertFinalNewline;
+        this.sink = sink;
+    }
+
+    private void accept(char ch) {
+        if (pendingCr) {
+            pendingCr = false;
+            if (ch == '\n') {
+                endLine("\r\n");
+                return;
+            }
+            endLine("\r");
+        }
+        if (ch == '\r') {
+            pendingCr = true;
+        } else if (ch == '\n') {
+            endLine("\n");
+        } else {
+            if (ch == ' ' || ch == '\t') {
+                if (whitespaceCount == 0) {
+                    whitespaceColumn = column;
+                }
+                whitespaceCount++;
+            } else {
+                whitespaceCount = 0;
+            }
+            lastTerminator = null;
+            column++;
+        }
+    }
+
+    private void checkTrailingWhitespace() {
+        if (trimTrailingWhitespace && whitespaceCount > 0) {
+            sink.violation(line, whitespaceColumn, delete(whitespaceCount),
+                    TRIM_TRAILING_WHITESPACE, "true");
+        }
+    }
+
+    private void drain(CharBuffer chars) {
+        chars.flip();
+        while (chars.hasRemaining()) {
+            accept(chars.get());
+        }
+        chars.clear();
+    }
+
+    private void end(boolean empty) {
+        if (pendingCr) {
+            pendingCr = false;
+            endLine("\r");
+        }
+        checkTrailingWhitespace();
+        if (insertFinalNewline == null || empty) {
+            return;
+        }
+        if (insertFinalNewline && lastTerminator == null) {
+            final String eol = endOfLine != null ? endOfLine : "\n";
+            sink.violation(line, column, "Insert '" + escape(eol) + "'", INSERT_FINAL_NEWLINE, "true");
+        } else if (!insertFinalNewline && lastTerminator != null) {
+            sink.violation(line - 1, lastTerminatorColumn, delete(lastTerminator.length()),
+                    INSERT_FINAL_NEWLINE, "false");
+        }
+    }
+
+    private void endLine(String terminator) {
+        checkTrailingWhitespace();
+        if (endOfLine != null && !endOfLine.equals(terminator)) {
+            sink.violation(line, column, "Replace '" + escape(terminator) + "' with '" + escape(endOfLine) + "'",
+                    END_OF_LINE, endOfLineValue);
+        }
+        lastTerminator = terminator;
+        lastTerminatorColumn = column;
+        line++;
+        column = 1;
+        whitespaceCount = 0;
+    }
+
+    private void scan(Path file, Charset charset) throws IOException {
+        final CharsetDecoder decoder = charset.newDecoder() //
+                .onMalformedInput(CodingErrorAction.REPLACE) //
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        final CharBuffer chars = CharBuffer.allocate(CHAR_BUFFER_SIZE);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            long position = 0;
+            while (true) {
+                final long windowSize = Math.min(WINDOW_SIZE, size - position);
+                final boolean last = position + windowSize == size;
+                final MappedByteBuffer bytes = channel.map(MapMode.READ_ONLY, position, windowSize);
+                /* Decode until the decoder needs more input than this window has */
+                while (decoder.decode(bytes, chars, last).isOverflow()) {
+                    drain(chars);
+                }
+                drain(chars);
+                if (last) {
+                    while (decoder.flush(chars).isOverflow()) {
+                        drain(chars);
+                    }
+                    drain(chars);
+                    break;
+                }
+                /* The bytes of an incomplete character at the end of the window are mapped again */
+                position += bytes.position();
+            }
+            end(size == 0);
+        }
+    }
+
+}
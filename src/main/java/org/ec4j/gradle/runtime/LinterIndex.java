@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2018 EditorConfig Gradle Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ec4j.gradle.runtime;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.ServiceLoader;
+
+import org.ec4j.lint.api.Linter;
+import org.ec4j.lint.api.Logger;
+
+/**
+ * The {@link Linter}s available on a class path together with their default includes and excludes, persisted between
+ * builds so that the class path does not need to be scanned as long as it does not change.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+public class LinterIndex {
+
+    /**
+     * A {@link Linter} found on the class path.
+     */
+    public static class Entry {
+        private final String className;
+        private final String[] excludes;
+        private final String[] includes;
+
+        Entry(String className, String[] includes, String[] excludes) {
+            super();
+            this.className = className;
+            this.includes = includes;
+            this.excludes = excludes;
+        }
+
+        /**
+         * @return the fully qualified class name of the {@link Linter}
+         */
+        public String getClassName() {
+            return className;
+        }
+
+        /**
+         * @return the default exclude patterns of the {@link Linter}
+         */
+        public String[] getExcludes() {
+            return excludes;
+        }
+
+        /**
+         * @return the default include patterns of the {@link Linter}
+         */
+        public String[] getIncludes() {
+            return includes;
+        }
+    }
+
+    private static final int VERSION = 1;
+
+    /**
+     * Reads the {@link Entry}s from the given {@code indexFile} if it exists. Otherwise, scans the given
+     * {@link ClassLoader} for {@link Linter} implementations and stores the result in {@code indexFile}.
+     *
+     * @param indexFile the file to read from or write to; the caller is responsible for selecting a file specific to
+     *        the content of the class path
+     * @param cl the {@link ClassLoader} to scan
+     * @param log the {@link Logger} to log to
+     * @return an unmodifiable {@link List} of {@link Entry}s in the order in which the {@link Linter}s were found
+     * @throws IOException on I/O problems
+     */
+    public static List<Entry> load(Path indexFile, ClassLoader cl, Logger log) throws IOException {
+        final List<Entry> cached = read(indexFile);
+        if (cached != null) {
+            log.debug("Using the linters from index {}", indexFile);
+            return cached;
+        }
+        final List<Entry> result = new ArrayList<>();
+        for (Linter linter : ServiceLoader.load(Linter.class, cl)) {
+            final String className = linter.getClass().getName();
+            log.debug("Found linter {} on the class path", className);
+            result.add(new Entry(className, linter.getDefaultIncludes().toArray(new String[0]),
+                    linter.getDefaultExcludes().toArray(new String[0])));
+        }
+        write(indexFile, result);
+        return Collections.unmodifiableList(result);
+    }
+
+    private static List<Entry> read(Path indexFile) throws IOException {
+        if (!Files.isRegularFile(indexFile)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)))) {
+            if (in.readInt() != VERSION) {
+                return null;
+            }
+            final int count = in.readInt();
+            final List<Entry> result = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                result.add(new Entry(readString(in), readStrings(in), readStrings(in)));
+            }
+            return Collections.unmodifiableList(result);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        final byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static String[] readStrings(DataInputStream in) throws IOException {
+        final String[] result = new String[in.readInt()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = readString(in);
+        }
+        return result;
+    }
+
+    /**
+     * Writes to a temporary file first so that concurrent builds never see a partially written index.
+     */
+    private static void write(Path indexFile, List<Entry> entries) throws IOException {
+        Files.createDirectories(indexFile.getParent());
+        final Path tempFile = Files.createTempFile(indexFile.getParent(), indexFile.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                out.writeInt(VERSION);
+                out.writeInt(entries.size());
+                for (Entry entry : entries) {
+                    writeString(entry.className, out);
+                    writeStrings(entry.includes, out);
+                    writeStrings(entry.excludes, out);
+                }
+            }
+            Files.move(tempFile, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    private static void writeString(String value, DataOutputStream out) throws IOException {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeStrings(String[] values, DataOutputStream out) throws IOException {
+        out.writeInt(values.length);
+        for (String value : values) {
+            writeString(value, out);
+        }
+    }
+
+    private LinterIndex() {
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2018 EditorConfig Gradle Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ec4j.gradle.runtime;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.ec4j.core.Cache;
+import org.ec4j.core.EditorConfigLoader;
+import org.ec4j.core.Resource;
+import org.ec4j.core.model.EditorConfig;
+
+/**
+ * A {@link Cache} of parsed {@code .editorconfig} files that survives the individual invocations of
+ * {@link EditorconfigInvoker}. Gradle keeps the isolated worker class loaders for as long as the daemon lives and
+ * the class path does not change, so subsequent builds find the files already parsed. Nothing is stored on disk, so
+ * a new daemon starts with an empty cache.
+ * <p>
+ * An entry is reused if the size and the last modification time of the file have not changed. If the modification
+ * time is too close to the time when the entry was recorded to tell a later edit from the recorded one, the SHA-1
+ * of the content is compared as well. At most {@value #MAX_SHARED_ENTRIES} files are remembered, the least recently
+ * used ones are evicted first.
+ * <p>
+ * Each instance additionally remembers the {@link EditorConfig}s it has served so that every file is validated only
+ * once per invocation, like with {@link Cache.Caches#permanent()}.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+class SharedEditorConfigCache implements Cache {
+
+    private static class Entry {
+        private final byte[] digest;
+        private final EditorConfig editorConfig;
+        private final long lastModified;
+        private final long length;
+        private final long recordedAt;
+
+        Entry(long length, long lastModified, byte[] digest, EditorConfig editorConfig, long recordedAt) {
+            super();
+            this.length = length;
+            this.lastModified = lastModified;
+            this.digest = digest;
+            this.editorConfig = editorConfig;
+            this.recordedAt = recordedAt;
+        }
+    }
+
+    /** The granularity of the file modification times on the file systems we care about */
+    private static final long MTIME_RESOLUTION_MILLIS = 2000;
+
+    /** Far more than the number of {@code .editorconfig} files in a typical build */
+    private static final int MAX_SHARED_ENTRIES = 1024;
+
+    private static final Map<Path, Entry> SHARED = Collections
+            .synchronizedMap(new LinkedHashMap<Path, Entry>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Path, SharedEditorConfigCache.Entry> eldest) {
+                    return size() > MAX_SHARED_ENTRIES;
+                }
+            });
+
+    private static byte[] digest(byte[] content) {
+        try {
+            return MessageDigest.getInstance("SHA-1").digest(content);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private final Map<Resource, EditorConfig> local = new ConcurrentHashMap<>();
+
+    @Override
+    public EditorConfig get(Resource editorConfigFile, EditorConfigLoader loader) throws IOException {
+        final EditorConfig result = local.get(editorConfigFile);
+        if (result != null) {
+            return result;
+        }
+        final EditorConfig loaded = load(editorConfigFile, loader);
+        final EditorConfig previous = local.putIfAbsent(editorConfigFile, loaded);
+        return previous != null ? previous : loaded;
+    }
+
+    private EditorConfig load(Resource editorConfigFile, EditorConfigLoader loader) throws IOException {
+        final Path path;
+        try {
+            path = Paths.get(editorConfigFile.toString());
+        } catch (InvalidPathException e) {
+            return loader.load(editorConfigFile);
+        }
+        if (!Files.isRegularFile(path)) {
+            /* Non-existent files are cheap to load */
+            return loader.load(editorConfigFile);
+        }
+        final long length = Files.size(path);
+        final long lastModified = Files.getLastModifiedTime(path).toMillis();
+        final Entry entry = SHARED.get(path);
+        if (entry != null && entry.length == length && entry.lastModified == lastModified
+                && entry.recordedAt - lastModified > MTIME_RESOLUTION_MILLIS) {
+            return entry.editorConfig;
+        }
+        final long recordedAt = System.currentTimeMillis();
+        final byte[] digest = digest(Files.readAllBytes(path));
+        if (entry != null && Arrays.equals(entry.digest, digest)) {
+            SHARED.put(path, new Entry(length, lastModified, digest, entry.editorConfig, recordedAt));
+            return entry.editorConfig;
+        }
+        final EditorConfig editorConfig = loader.load(editorConfigFile);
+        /*
+         * The loader reads the file on its own, so the entry is recorded only if the content is still the digested
+         * one; otherwise a concurrent edit could leave the old content cached under the new digest
+         */
+        if (Arrays.equals(digest, digest(Files.readAllBytes(path)))) {
+            SHARED.put(path, new Entry(length, lastModified, digest, editorConfig, recordedAt));
+        }
+        return editorConfig;
+    }
+
+}
@@ -0,0 +1,391 @@
+/*
+ * Copyright (c) 2018 EditorConfig Gradle Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ec4j.gradle.runtime;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * The time spent per processing phase, per {@link org.ec4j.lint.api.Linter} class and in the slowest files. The
+ * times are summed over all threads, so with parallel processing they may exceed the wall time. In format mode, also
+ * the number of the linter passes per file and the files still changing after {@code maxFormatPasses}. Safe for
+ * concurrent use.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+public class Timings {
+
+    /** Fixing the violations and storing the file in format mode */
+    public static final String APPLY_FIXES = "applyFixes";
+
+    /** {@link BinaryFileDetector#isBinary(Path, java.nio.charset.Charset)} */
+    public static final String BINARY_DETECTION = "binaryDetection";
+
+    /** {@link LineScanner#isClean(Path, java.nio.charset.Charset, String, Boolean, Boolean)} */
+    public static final String BYTE_LEVEL_CHECK = "byteLevelCheck";
+
+    /** Reading and decoding the content of the files */
+    public static final String DECODE = "decode";
+
+    /** Streaming the files over {@code largeFileThreshold} through {@link LineScanner} */
+    public static final String LARGE_FILE_SCAN = "largeFileScan";
+
+    /** The {@link org.ec4j.lint.api.Linter}s; see {@link #addLinter(String, long)} for the per-class breakdown */
+    public static final String LINT = "lint";
+
+    /** Querying the {@code .editorconfig} properties applicable to the files */
+    public static final String PROPERTIES = "properties";
+
+    /** Walking the project directory to select the files to process */
+    public static final String SCAN = "scan";
+
+    /** The number of the slowest files to keep */
+    static final int SLOWEST_FILE_COUNT = 20;
+
+    private static final int VERSION = 2;
+
+    /**
+     * The total time and the number of invocations of a phase or a {@link org.ec4j.lint.api.Linter}.
+     */
+    static class Total {
+        private long count;
+        private long nanos;
+
+        void add(long nanos, long count) {
+            this.nanos += nanos;
+            this.count += count;
+        }
+    }
+
+    /**
+     * @param path the file to read
+     * @return the {@link Timings} stored in the given {@code path} or {@code null} if the file does not exist or has
+     *         an unexpected format
+     * @throws IOException on I/O problems
+     */
+    public static Timings read(Path path) throws IOException {
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != VERSION) {
+                return null;
+            }
+            final Timings result = new Timings();
+            result.fileCount = in.readLong();
+            readTotals(in, result.phases);
+            readTotals(in, result.linters);
+            final int slowestCount = in.readInt();
+            for (int i = 0; i < slowestCount; i++) {
+                result.offerSlowest(in.readUTF(), in.readLong());
+            }
+            final int passesSize = in.readInt();
+            for (int i = 0; i < passesSize; i++) {
+                result.passes.merge(in.readInt(), in.readLong(), Long::sum);
+            }
+            final int unsettledCount = in.readInt();
+            for (int i = 0; i < unsettledCount; i++) {
+                result.unsettledFiles.add(in.readUTF());
+            }
+            return result;
+        }
+    }
+
+    private static void readTotals(DataInputStream in, Map<String, Total> totals) throws IOException {
+        final int size = in.readInt();
+        for (int i = 0; i < size; i++) {
+            totals.computeIfAbsent(in.readUTF(), k -> new Total()).add(in.readLong(), in.readLong());
+        }
+    }
+
+    private static void writeTotals(DataOutputStream out, Map<String, Total> totals) throws IOException {
+        out.writeInt(totals.size());
+        for (Map.Entry<String, Total> e : totals.entrySet()) {
+            out.writeUTF(e.getKey());
+            out.writeLong(e.getValue().nanos);
+            out.writeLong(e.getValue().count);
+        }
+    }
+
+    private static void writeJsonTotals(Writer out, Map<String, Total> totals) throws IOException {
+        String separator = "\n";
+        for (Map.Entry<String, Total> e : totals.entrySet()) {
+            out.write(separator);
+            out.write("    ");
+            writeJsonString(out, e.getKey());
+            out.write(": { \"nanos\": " + e.getValue().nanos + ", \"count\": " + e.getValue().count + " }");
+            separator = ",\n";
+        }
+        out.write(totals.isEmpty() ? "" : "\n  ");
+    }
+
+    private static void writeJsonString(Writer out, String value) throws IOException {
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.write('\\');
+                out.write(c);
+            } else if (c < 0x20) {
+                out.write(String.format("\\u%04x", (int) c));
+            } else {
+                out.write(c);
+            }
+        }
+        out.write('"');
+    }
+
+    /**
+     * @param nanos the duration to format
+     * @return the given duration in seconds, rounded to milliseconds
+     */
+    static String seconds(long nanos) {
+        return String.format(Locale.ROOT, "%.3f s", nanos / 1e9);
+    }
+
+    private long fileCount;
+    private final Map<String, Total> linters = new TreeMap<>();
+    /** The number of files per number of linter passes */
+    private final Map<Integer, Long> passes = new TreeMap<>();
+    private final Map<String, Total> phases = new TreeMap<>();
+    private final PriorityQueue<Map.Entry<String, Long>> slowest = new PriorityQueue<>(SLOWEST_FILE_COUNT + 1,
+            Map.Entry.comparingByValue());
+    /** The files that may still have violations after {@code maxFormatPasses} */
+    private final Set<String> unsettledFiles = new TreeSet<>();
+
+    /**
+     * Records the time spent in processing a single file.
+     *
+     * @param file the path of the file relative to the project directory
+     * @param nanos the time spent in nanoseconds
+     */
+    public synchronized void addFile(String file, long nanos) {
+        fileCount++;
+        offerSlowest(file, nanos);
+    }
+
+    private void offerSlowest(String file, long nanos) {
+        if (slowest.size() < SLOWEST_FILE_COUNT || slowest.peek().getValue() < nanos) {
+            slowest.add(new AbstractMap.SimpleImmutableEntry<>(file, nanos));
+            if (slowest.size() > SLOWEST_FILE_COUNT) {
+                slowest.poll();
+            }
+        }
+    }
+
+    /**
+     * Records the time spent in a single invocation of the given {@link org.ec4j.lint.api.Linter}.
+     *
+     * @param linterClassName the name of the {@link org.ec4j.lint.api.Linter} class
+     * @param nanos the time spent in nanoseconds
+     */
+    public synchronized void addLinter(String linterClassName, long nanos) {
+        linters.computeIfAbsent(linterClassName, k -> new Total()).add(nanos, 1);
+        phases.computeIfAbsent(LINT, k -> new Total()).add(nanos, 1);
+    }
+
+    /**
+     * Records the number of the linter passes it took to format a single file.
+     *
+     * @param file the path of the file relative to the project directory
+     * @param passCount the number of the passes
+     * @param settled {@code false} if {@code maxFormatPasses} was reached before the file stopped changing
+     */
+    public synchronized void addPasses(String file, int passCount, boolean settled) {
+        passes.merge(passCount, 1L, Long::sum);
+        if (!settled) {
+            unsettledFiles.add(file);
+        }
+    }
+
+    /**
+     * Records the time spent in a single invocation of the given phase.
+     *
+     * @param phase one of the phase constants of this class
+     * @param nanos the time spent in nanoseconds
+     */
+    public synchronized void addPhase(String phase, long nanos) {
+        phases.computeIfAbsent(phase, k -> new Total()).add(nanos, 1);
+    }
+
+    /**
+     * Adds all times recorded in the given {@code other} {@link Timings} to this one.
+     *
+     * @param other the {@link Timings} to add
+     */
+    public synchronized void addAll(Timings other) {
+        synchronized (other) {
+            for (Map.Entry<String, Total> e : other.phases.entrySet()) {
+                phases.computeIfAbsent(e.getKey(), k -> new Total()).add(e.getValue().nanos, e.getValue().count);
+            }
+            for (Map.Entry<String, Total> e : other.linters.entrySet()) {
+                linters.computeIfAbsent(e.getKey(), k -> new Total()).add(e.getValue().nanos, e.getValue().count);
+            }
+            for (Map.Entry<String, Long> e : other.slowest) {
+                offerSlowest(e.getKey(), e.getValue());
+            }
+            for (Map.Entry<Integer, Long> e : other.passes.entrySet()) {
+                passes.merge(e.getKey(), e.getValue(), Long::sum);
+            }
+            unsettledFiles.addAll(other.unsettledFiles);
+            fileCount += other.fileCount;
+        }
+    }
+
+    /**
+     * @return the slowest files, the slowest first
+     */
+    synchronized List<Map.Entry<String, Long>> getSlowestFiles() {
+        final List<Map.Entry<String, Long>> result = new ArrayList<>(slowest);
+        result.sort(Map.Entry.<String, Long> comparingByValue(Comparator.reverseOrder()));
+        return result;
+    }
+
+    /**
+     * @return the files that may still have violations after {@code maxFormatPasses}, sorted by path
+     */
+    public synchronized List<String> getUnsettledFiles() {
+        return new ArrayList<>(unsettledFiles);
+    }
+
+    /**
+     * @param wallNanos the wall time of the whole task in nanoseconds
+     * @return a one line summary of the most expensive phases and {@link org.ec4j.lint.api.Linter}s
+     */
+    public synchronized String summary(long wallNanos) {
+        final StringBuilder result = new StringBuilder();
+        result.append("Processed ").append(fileCount).append(" files in ").append(seconds(wallNanos));
+        final List<Map.Entry<String, Long>> costs = new ArrayList<>();
+        for (Map.Entry<String, Total> e : phases.entrySet()) {
+            if (!LINT.equals(e.getKey())) {
+                costs.add(new AbstractMap.SimpleImmutableEntry<>(e.getKey(), e.getValue().nanos));
+            }
+        }
+        for (Map.Entry<String, Total> e : linters.entrySet()) {
+            final String className = e.getKey();
+            costs.add(new AbstractMap.SimpleImmutableEntry<>(
+                    className.substring(className.lastIndexOf('.') + 1), e.getValue().nanos));
+        }
+        costs.sort(Map.Entry.<String, Long> comparingByValue(Comparator.reverseOrder()));
+        String separator = ": ";
+        for (Map.Entry<String, Long> cost : costs.subList(0, Math.min(4, costs.size()))) {
+            result.append(separator).append(cost.getKey()).append(' ').append(seconds(cost.getValue()));
+            separator = ", ";
+        }
+        final List<Map.Entry<String, Long>> slowestFiles = getSlowestFiles();
+        if (!slowestFiles.isEmpty()) {
+            result.append("; slowest file '").append(slowestFiles.get(0).getKey()).append("' ")
+                    .append(seconds(slowestFiles.get(0).getValue()));
+        }
+        return result.toString();
+    }
+
+    /**
+     * Writes this {@link Timings} to the given {@code path} so that they can be {@link #read(Path)} back.
+     *
+     * @param path where to write
+     * @throws IOException on I/O problems
+     */
+    public synchronized void write(Path path) throws IOException {
+        Files.createDirectories(path.getParent());
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.writeInt(VERSION);
+            out.writeLong(fileCount);
+            writeTotals(out, phases);
+            writeTotals(out, linters);
+            out.writeInt(slowest.size());
+            for (Map.Entry<String, Long> e : slowest) {
+                out.writeUTF(e.getKey());
+                out.writeLong(e.getValue());
+            }
+            out.writeInt(passes.size());
+            for (Map.Entry<Integer, Long> e : passes.entrySet()) {
+                out.writeInt(e.getKey());
+                out.writeLong(e.getValue());
+            }
+            out.writeInt(unsettledFiles.size());
+            for (String file : unsettledFiles) {
+                out.writeUTF(file);
+            }
+        }
+    }
+
+    /**
+     * Writes this {@link Timings} as a JSON report to the given {@code path}.
+     *
+     * @param path where to write
+     * @param taskName the name of the task whose {@link Timings} these are
+     * @param wallNanos the wall time of the whole task in nanoseconds
+     * @throws IOException on I/O problems
+     */
+    public synchronized void writeJson(Path path, String taskName, long wallNanos) throws IOException {
+        Files.createDirectories(path.getParent());
+        try (Writer out = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            out.write("{\n  \"task\": ");
+            writeJsonString(out, taskName);
+            out.write(",\n  \"wallNanos\": " + wallNanos);
+            out.write(",\n  \"fileCount\": " + fileCount);
+            out.write(",\n  \"phases\": {");
+            writeJsonTotals(out, phases);
+            out.write("},\n  \"linters\": {");
+            writeJsonTotals(out, linters);
+            out.write("},\n  \"slowestFiles\": [");
+            String separator = "\n";
+            for (Map.Entry<String, Long> e : getSlowestFiles()) {
+                out.write(separator);
+                out.write("    { \"file\": ");
+                writeJsonString(out, e.getKey());
+                out.write(", \"nanos\": " + e.getValue() + " }");
+                separator = ",\n";
+            }
+            out.write(slowest.isEmpty() ? "],\n  \"formatPasses\": {" : "\n  ],\n  \"formatPasses\": {");
+            separator = "\n";
+            for (Map.Entry<Integer, Long> e : passes.entrySet()) {
+                out.write(separator);
+                out.write("    \"" + e.getKey() + "\": " + e.getValue());
+                separator = ",\n";
+            }
+            out.write(passes.isEmpty() ? "},\n  \"unsettledFiles\": [" : "\n  },\n  \"unsettledFiles\": [");
+            separator = "\n";
+            for (String file : unsettledFiles) {
+                out.write(separator);
+                out.write("    ");
+                writeJsonString(out, file);
+                separator = ",\n";
+            }
+            out.write(unsettledFiles.isEmpty() ? "]\n}\n" : "\n  ]\n}\n");
+        }
+    }
+
+}
@@ -18,104 +18,181 @@ package org.ec4j.gradle;
 
 import org.ec4j.lint.api.Logger.LogLevel;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
+import java.util.TreeMap;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class CollectingLoggerTest {
 
-    @Test
-    void serialize() throws IOException {
+    private static CollectingLogger logAllLevels() {
         final CollectingLogger log = new CollectingLogger(LogLevel.TRACE);
-
         log.trace("trace trace\nstr{}", 1);
         log.debug("debug debug\rstr{}", 2);
         log.info("info info\r\nstr{}", 3);
         log.warn("warn warn str{}", 4);
         log.error("error error\tstr{}", 5);
+        return log;
+    }
+
+    private static void assertAllLevels(List<Entry<String, String>> messages) {
+        assertEquals(Arrays.asList( //
+                new AbstractMap.SimpleImmutableEntry<String, String>("TRACE", "trace trace\nstr1"), //
+                new AbstractMap.SimpleImmutableEntry<String, String>("DEBUG", "debug debug\rstr2"), //
+                new AbstractMap.SimpleImmutableEntry<String, String>("INFO", "info info\r\nstr3"), //
+                new AbstractMap.SimpleImmutableEntry<String, String>("WARN", "warn warn str4"), //
+                new AbstractMap.SimpleImmutableEntry<String, String>("ERROR", "error error\tstr5")), //
+                messages);
+    }
+
+    @Test
+    void writeRead(@TempDir Path tempDir) throws IOException {
+        final CollectingLogger log = logAllLevels();
         log.fail("fail\nfail\n");
 
-        final String prefix = "bla bla\n";
-        final StringBuilder out = new StringBuilder();
-        out.append(prefix);
-        log.serialize(out);
-
-        final String serialized = out.toString();
-        assertEquals(prefix //
-                + "TRACE trace trace\\nstr1\n" //
-                + "DEBUG debug debug\\rstr2\n" //
-                + "INFO info info\\r\\nstr3\n" //
-                + "WARN warn warn str4\n" //
-                + "ERROR error error\tstr5\n" //
-                + "FAILURE fail\\nfail\\n", //
-                serialized);
-
-        final CollectingLogger.LogMessages data = CollectingLogger.deserialize(prefix.length(), serialized);
-        final List<Entry<String, String>> messages = data.getMessages();
-        int i = 0;
-        assertEquals(5, messages.size());
-        assertEquals(new AbstractMap.SimpleImmutableEntry<String, String>("TRACE", "trace trace\nstr1"),
-                messages.get(i++));
-        assertEquals(new AbstractMap.SimpleImmutableEntry<String, String>("DEBUG", "debug debug\rstr2"),
-                messages.get(i++));
-        assertEquals(new AbstractMap.SimpleImmutableEntry<String, String>("INFO", "info info\r\nstr3"),
-                messages.get(i++));
-        assertEquals(new AbstractMap.SimpleImmutableEntry<String, String>("WARN", "warn warn str4"),
-                messages.get(i++));
-        assertEquals(new AbstractMap.SimpleImmutableEntry<String, String>("ERROR", "error error\tstr5"),
-                messages.get(i++));
-
-        final String failureMessage = data.getFailureMessage();
+        final Path resultFile = tempDir.resolve("result");
+        log.write(resultFile);
+
+        final List<Entry<String, String>> messages = new ArrayList<>();
+        final String failureMessage = CollectingLogger.read(resultFile,
+                (level, message) -> messages.add(new AbstractMap.SimpleImmutableEntry<>(level, message)));
+        assertAllLevels(messages);
         assertEquals("fail\nfail\n", failureMessage);
+    }
+
+    @Test
+    void writeReadNoFailure(@TempDir Path tempDir) throws IOException {
+        final CollectingLogger log = logAllLevels();
 
+        final Path resultFile = tempDir.resolve("result");
+        log.write(resultFile);
+
+        final List<Entry<String, String>> messages = new ArrayList<>();
+        final String failureMessage = CollectingLogger.read(resultFile,
+                (level, message) -> messages.add(new AbstractMap.SimpleImmutableEntry<>(level, message)));
+        assertAllLevels(messages);
+        assertNull(failureMessage);
     }
 
     @Test
-    void serializeNoFailure() throws IOException {
-        final CollectingLogger log = new CollectingLogger(LogLevel.TRACE);
+    void writeReadCounts(@TempDir Path tempDir) throws IOException {
+        final CollectingLogger log = new CollectingLogger(LogLevel.INFO);
+        log.count("files", 2);
+        log.count("files", 3);
+        log.count("violations", 1);
+        final Path resultFile = tempDir.resolve("result");
+        log.write(resultFile);
+
+        final Map<String, Long> counts = new TreeMap<>();
+        counts.put("files", 10L);
+        CollectingLogger.read(resultFile, (level, message) -> {
+        }, counts);
+        assertEquals(15L, counts.get("files").longValue());
+        assertEquals(1L, counts.get("violations").longValue());
+    }
+
+    @Test
+    void writeReadViolations(@TempDir Path tempDir) throws IOException {
+        final CollectingLogger log = new CollectingLogger(LogLevel.INFO);
+        log.info("Processing file '{}'", "a.txt");
+        log.violation(LogLevel.WARN, "a.txt", "org.ec4j.linters.TextLinter", "{}@{},1: Delete 1 character", "a.txt",
+                2);
+        final Path resultFile = tempDir.resolve("result");
+        log.write(resultFile);
+
+        final List<String> messages = new ArrayList<>();
+        CollectingLogger.read(resultFile, new CollectingLogger.MessageConsumer() {
+            @Override
+            public void accept(String level, String message) {
+                messages.add(level + " " + message);
+            }
+
+            @Override
+            public void acceptViolation(String level, String file, String linter, String message) {
+                messages.add(level + " " + file + " " + linter + " " + message);
+            }
+        });
+        assertEquals(Arrays.asList( //
+                "INFO Processing file 'a.txt'", //
+                "WARN a.txt org.ec4j.linters.TextLinter a.txt@2,1: Delete 1 character"), messages);
+
+        final List<String> plain = new ArrayList<>();
+        CollectingLogger.read(resultFile, (level, message) -> plain.add(level + " " + message));
+        assertEquals(Arrays.asList( //
+                "INFO Processing file 'a.txt'", //
+                "WARN a.txt@2,1: Delete 1 character"), plain);
+    }
 
+    @Test
+    void spill(@TempDir Path tempDir) throws IOException {
+        final Path spillFile = tempDir.resolve("result.spill");
+        final CollectingLogger log = new CollectingLogger(LogLevel.TRACE, spillFile, 2);
         log.trace("trace trace\nstr{}", 1);
         log.debug("debug debug\rstr{}", 2);
+        log.spillIfFull();
+        assertFalse(Files.exists(spillFile));
+
         log.info("info info\r\nstr{}", 3);
+        log.spillIfFull();
+        assertTrue(Files.exists(spillFile));
+        assertEquals(3, log.size());
+
+        final int mark = log.size();
         log.warn("warn warn str{}", 4);
         log.error("error error\tstr{}", 5);
-
-        final String prefix = "bla bla\n";
-        final StringBuilder out = new StringBuilder();
-        out.append(prefix);
-        log.serialize(out);
-
-        final String serialized = out.toString();
-        assertEquals(prefix //
-                + "TRACE trace trace\\nstr1\n" //
-                + "DEBUG debug debug\\rstr2\n" //
-                + "INFO info info\\r\\nstr3\n" //
-                + "WARN warn warn str4\n" //
-                + "ERROR error error\tstr5\n", //
-                serialized);
-
-        final CollectingLogger.LogMessages data = CollectingLogger.deserialize(prefix.length(), serialized);
-        final List<Entry<String, String>> messages = data.getMessages();
-        int i = 0;
-        assertEquals(5, messages.size());
-        assertEquals(new AbstractMap.SimpleImmutableEntry<String, String>("TRACE", "trace trace\nstr1"),
-                messages.get(i++));
-        assertEquals(new AbstractMap.SimpleImmutableEntry<String, String>("DEBUG", "debug debug\rstr2"),
-                messages.get(i++));
-        assertEquals(new AbstractMap.SimpleImmutableEntry<String, String>("INFO", "info info\r\nstr3"),
-                messages.get(i++));
-        assertEquals(new AbstractMap.SimpleImmutableEntry<String, String>("WARN", "warn warn str4"),
-                messages.get(i++));
-        assertEquals(new AbstractMap.SimpleImmutableEntry<String, String>("ERROR", "error error\tstr5"),
-                messages.get(i++));
-
-        final String failureMessage = data.getFailureMessage();
+        assertEquals(Arrays.asList( //
+                new AbstractMap.SimpleImmutableEntry<String, String>("WARN", "warn warn str4"), //
+                new AbstractMap.SimpleImmutableEntry<String, String>("ERROR", "error error\tstr5")), //
+                log.getWarningsAndErrors(mark));
+        assertThrows(IllegalStateException.class, () -> log.getMessages(mark - 1));
+
+        final Path resultFile = tempDir.resolve("result");
+        log.write(resultFile);
+        assertFalse(Files.exists(spillFile));
+
+        final List<Entry<String, String>> messages = new ArrayList<>();
+        final String failureMessage = CollectingLogger.read(resultFile,
+                (level, message) -> messages.add(new AbstractMap.SimpleImmutableEntry<>(level, message)));
+        assertAllLevels(messages);
         assertNull(failureMessage);
+    }
+
+    @Test
+    void levelAndSnapshot() {
+        final CollectingLogger log = new CollectingLogger(LogLevel.INFO);
+        log.trace("trace {}", 1);
+        log.debug("debug {}", 2);
+        assertEquals(0, log.size());
+
+        final StringBuilder mutable = new StringBuilder("before");
+        log.warn("warn {} {}", mutable, 3);
+        mutable.append(" after");
+        assertEquals(Arrays.asList(new AbstractMap.SimpleImmutableEntry<String, String>("WARN", "warn before 3")),
+                log.getWarningsAndErrors(0));
+    }
 
+    @Test
+    void readTruncated(@TempDir Path tempDir) throws IOException {
+        final Path resultFile = tempDir.resolve("result");
+        logAllLevels().write(resultFile);
+        final byte[] bytes = Files.readAllBytes(resultFile);
+        Files.write(resultFile, Arrays.copyOf(bytes, bytes.length - 2));
+
+        assertThrows(IOException.class, () -> CollectingLogger.read(resultFile, (level, message) -> {
+        }));
     }
 }
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2018 EditorConfig Gradle Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ec4j.gradle;
+
+import org.gradle.testkit.runner.BuildResult;
+import org.gradle.testkit.runner.GradleRunner;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Runs {@code editorconfigCheck} and {@code editorconfigFormat} over a large synthetic multi-project build generated
+ * by {@link PerformanceFixture} and fails if the wall time or the peak heap of the Gradle daemon exceed the budgets
+ * stored in {@code performance-budgets.properties}. Excluded from {@code test}, run via
+ * {@code ./gradlew performanceTest}.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+@Tag("performance")
+class EditorconfigPerformanceITest {
+
+    private static final Path buildProjectsPath;
+    private static final Logger log = LoggerFactory.getLogger(EditorconfigPerformanceITest.class);
+    private static final Pattern PEAK_HEAP_PATTERN = Pattern
+            .compile(Pattern.quote(PerformanceFixture.PEAK_HEAP_PREFIX) + "([0-9]+)");
+    private static final Path projectDir = Paths.get(System.getProperty("project.dir", "."));
+
+    private static final int fileSize = Integer.getInteger("perf.fileSize", 2048);
+    private static final int filesPerSubproject = Integer.getInteger("perf.filesPerSubproject", 2000);
+    private static final int subprojectCount = Integer.getInteger("perf.subprojects", 50);
+
+    private static Properties budgets;
+
+    static {
+        buildProjectsPath = projectDir.resolve("build/test-projects/performance");
+    }
+
+    @BeforeAll
+    public static void beforeClass() throws IOException {
+        IoTestUtils.deleteDirectory(buildProjectsPath);
+        budgets = new Properties();
+        try (InputStream in = EditorconfigPerformanceITest.class
+                .getResourceAsStream("/performance-budgets.properties")) {
+            budgets.load(in);
+        }
+    }
+
+    /**
+     * Fails if the {@code actual} value exceeds the budget stored under {@code key}. If {@code scale} is {@code true},
+     * the budget is scaled by the ratio of the actual fixture size to the fixture size the budgets were recorded for.
+     */
+    private static void assertWithinBudget(String key, long actual, boolean scale) {
+        final long budgetFileCount = Long.parseLong(budgets.getProperty("fileCount"));
+        final long budget = Long.parseLong(budgets.getProperty(key));
+        final long fileCount = (long) subprojectCount * filesPerSubproject;
+        final long scaledBudget = scale ? Math.max(1, budget * fileCount / budgetFileCount) : budget;
+        log.info("{}: {} (budget {})", key, actual, scaledBudget);
+        if (actual > scaledBudget) {
+            fail(key + " " + actual + " exceeds the budget of " + scaledBudget + " for " + fileCount
+                    + " files; see performance-budgets.properties");
+        }
+    }
+
+    private static long peakHeapMegabytes(String logText) {
+        final Matcher m = PEAK_HEAP_PATTERN.matcher(logText);
+        long peak = -1;
+        while (m.find()) {
+            peak = Math.max(peak, Long.parseLong(m.group(1)));
+        }
+        if (peak < 0) {
+            fail("Log text should contain '" + PerformanceFixture.PEAK_HEAP_PREFIX + "'\n\n" + logText);
+        }
+        return peak / (1024 * 1024);
+    }
+
+    private static Path init(String testName, double violationDensity) throws IOException {
+        final Path testProjectPath = buildProjectsPath.resolve(testName);
+        PerformanceFixture.generate(testProjectPath, subprojectCount, filesPerSubproject, fileSize, violationDensity);
+        /* Start the daemon and compile the build scripts so that only the task execution is measured */
+        runner(testProjectPath, "help").build();
+        return testProjectPath;
+    }
+
+    private static GradleRunner runner(Path testProjectPath, String... arguments) {
+        return GradleRunner.create() //
+                .withProjectDir(testProjectPath.toFile()) //
+                .withArguments(arguments) //
+                .withPluginClasspath();
+    }
+
+    private static void measure(String testName, String taskName, double violationDensity) throws IOException {
+        final Path testProjectPath = init(testName, violationDensity);
+
+        final long start = System.nanoTime();
+        final BuildResult result = runner(testProjectPath, taskName, "--stacktrace").build();
+        final long wallTimeMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        final String logText = result.getOutput();
+        Files.write(testProjectPath.resolve("log.txt"), logText.getBytes(StandardCharsets.UTF_8));
+
+        assertWithinBudget(testName + ".wallTimeMillis", wallTimeMillis, true);
+        assertWithinBudget(testName + ".peakHeapMegabytes", peakHeapMegabytes(logText), false);
+    }
+
+    @Test
+    void check() throws IOException {
+        measure("check", EditorconfigCheckTask.NAME, 0);
+    }
+
+    @Test
+    void format() throws IOException {
+        measure("format", EditorconfigFormatTask.NAME, 0.01);
+    }
+
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2018 EditorConfig Gradle Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ec4j.gradle;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FilePartitionerTest {
+
+    @Test
+    void chunkCount() {
+        assertEquals(1, FilePartitioner.chunkCount(0, 8));
+        assertEquals(1, FilePartitioner.chunkCount(7, 8));
+        assertEquals(2, FilePartitioner.chunkCount(FilePartitioner.MIN_FILES_PER_CHUNK + 1, 8));
+        assertEquals(4, FilePartitioner.chunkCount(40000, 4));
+    }
+
+    @Test
+    void partitionBalanced() {
+        final List<Integer> items = Arrays.asList(10, 10, 10, 10, 40, 5, 5, 5, 5);
+        final List<List<Integer>> chunks = FilePartitioner.partition(items, Integer::longValue, 3);
+        assertEquals(Arrays.asList( //
+                Arrays.asList(10, 10, 10, 10), //
+                Arrays.asList(40), //
+                Arrays.asList(5, 5, 5, 5)), //
+                chunks);
+    }
+
+    @Test
+    void partitionKeepsOrderAndAllItems() {
+        final List<Integer> items = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            items.add(i);
+        }
+        final List<List<Integer>> chunks = FilePartitioner.partition(items, i -> 1L + (i % 7) * 100, 6);
+        assertEquals(6, chunks.size());
+        final List<Integer> merged = new ArrayList<>();
+        for (List<Integer> chunk : chunks) {
+            assertEquals(false, chunk.isEmpty());
+            merged.addAll(chunk);
+        }
+        assertEquals(items, merged);
+    }
+
+    @Test
+    void partitionHeavyTail() {
+        /* a single heavy item at the end must not leave the trailing chunks empty */
+        final List<Integer> items = Arrays.asList(1, 1, 1, 1000);
+        final List<List<Integer>> chunks = FilePartitioner.partition(items, Integer::longValue, 3);
+        assertEquals(3, chunks.size());
+        assertEquals(Collections.singletonList(1000), chunks.get(2));
+    }
+
+    @Test
+    void partitionEmpty() {
+        final List<List<String>> chunks = FilePartitioner.partition(Collections.<String> emptyList(), s -> 1L, 4);
+        assertEquals(1, chunks.size());
+        assertEquals(0, chunks.get(0).size());
+    }
+
+}
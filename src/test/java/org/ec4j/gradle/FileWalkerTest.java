@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2018 EditorConfig Gradle Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ec4j.gradle;
+
+import org.gradle.api.Project;
+import org.gradle.api.file.FileTree;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FileWalkerTest {
+
+    private static String[] split(String path) {
+        return path.split("/");
+    }
+
+    @Test
+    void antPattern() {
+        final FileWalker.AntPattern javaFiles = FileWalker.AntPattern.compile("src/**/*.java");
+        assertTrue(javaFiles.matches(split("src/App.java")));
+        assertTrue(javaFiles.matches(split("src/main/java/App.java")));
+        assertFalse(javaFiles.matches(split("App.java")));
+        assertFalse(javaFiles.matches(split("src/App.javax")));
+
+        final FileWalker.AntPattern topLevel = FileWalker.AntPattern.compile("*.t?t");
+        assertTrue(topLevel.matches(split("a.txt")));
+        assertFalse(topLevel.matches(split("dir/a.txt")));
+
+        final FileWalker.AntPattern trailingSlash = FileWalker.AntPattern.compile("build/");
+        assertTrue(trailingSlash.matches(split("build")));
+        assertTrue(trailingSlash.matches(split("build/classes/A.class")));
+    }
+
+    @Test
+    void antPatternMatchesBelow() {
+        final FileWalker.AntPattern javaFiles = FileWalker.AntPattern.compile("src/main/*.java");
+        assertTrue(javaFiles.matchesBelow(split("src")));
+        assertTrue(javaFiles.matchesBelow(split("src/main")));
+        assertFalse(javaFiles.matchesBelow(split("src/test")));
+        assertFalse(javaFiles.matchesBelow(split("src/main/java")));
+        assertTrue(FileWalker.AntPattern.compile("**/*.xml").matchesBelow(split("a/b/c")));
+    }
+
+    @Test
+    void walk(@TempDir Path root) throws IOException {
+        for (String file : Arrays.asList("build.gradle", "README.adoc", "src/main/java/App.java",
+                "src/main/resources/indent.xml", "build/tmp/out.txt", "node_modules/lib/index.js",
+                "sub/node_modules/x.js", "docs/index.adoc")) {
+            final Path path = root.resolve(file);
+            Files.createDirectories(path.getParent());
+            Files.write(path, new byte[0]);
+        }
+
+        final FileWalker walker = new FileWalker(Collections.<String> emptyList(),
+                Arrays.asList("**/node_modules/**", "build/**", "docs/"));
+        assertFalse(walker.isDescended("node_modules"));
+        assertFalse(walker.isDescended("sub/node_modules"));
+        assertFalse(walker.isDescended("build"));
+        assertTrue(walker.isDescended("src/main"));
+
+        final List<String> actual = new ArrayList<>();
+        for (Path file : walker.walk(root)) {
+            actual.add(root.relativize(file).toString().replace('\\', '/'));
+        }
+        Collections.sort(actual);
+        assertEquals(Arrays.asList("README.adoc", "build.gradle", "src/main/java/App.java",
+                "src/main/resources/indent.xml"), actual);
+
+        final FileWalker includesOnly = new FileWalker(Arrays.asList("src/**/*.xml"),
+                Collections.<String> emptyList());
+        assertFalse(includesOnly.isDescended("build"));
+        assertEquals(Collections.singletonList(root.resolve("src/main/resources/indent.xml")), includesOnly.walk(root));
+    }
+
+    @Test
+    void sameAsFileTree(@TempDir Path dir) throws IOException {
+        final Path root = dir.resolve("tree");
+        for (String file : Arrays.asList("build.gradle", ".gitignore", ".gitattributes", ".git/config",
+                ".git/objects/ab/cdef", "src/main/java/App.java", "src/main/java/App.java~", "src/.DS_Store",
+                "src/main/.svn/entries", "src/main/resources/#autosave#", "build/tmp/out.txt")) {
+            final Path path = root.resolve(file);
+            Files.createDirectories(path.getParent());
+            Files.write(path, new byte[0]);
+        }
+        final List<String> includes = Collections.emptyList();
+        final List<String> excludes = Collections.singletonList("build/**");
+
+        final Set<String> walked = new TreeSet<>();
+        for (Path file : new FileWalker(includes, excludes).walk(root)) {
+            walked.add(root.relativize(file).toString().replace('\\', '/'));
+        }
+
+        /* Not the root itself as ProjectBuilder stores its Gradle user home in the project directory */
+        final Project project = ProjectBuilder.builder().withProjectDir(dir.resolve("project").toFile()).build();
+        final FileTree fileTree = project.fileTree(root, tree -> tree.include(includes).exclude(excludes));
+        final Set<String> selected = new TreeSet<>();
+        for (File file : fileTree.getFiles()) {
+            selected.add(root.relativize(file.toPath()).toString().replace('\\', '/'));
+        }
+
+        assertEquals(selected, walked);
+        assertEquals(new TreeSet<>(Arrays.asList("build.gradle", "src/main/java/App.java")), walked);
+    }
+}
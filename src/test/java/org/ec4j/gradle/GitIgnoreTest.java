@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2018 EditorConfig Gradle Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ec4j.gradle;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GitIgnoreTest {
+
+    private static void write(Path file, String content) throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void rules() {
+        final GitIgnore.Rule unanchored = GitIgnore.Rule.parse("*.log");
+        assertTrue(unanchored.matches("a.log", false));
+        assertTrue(unanchored.matches("dir/a.log", false));
+        assertFalse(unanchored.matches("a.txt", false));
+
+        final GitIgnore.Rule anchored = GitIgnore.Rule.parse("/out");
+        assertTrue(anchored.matches("out", true));
+        assertFalse(anchored.matches("sub/out", true));
+
+        final GitIgnore.Rule dirOnly = GitIgnore.Rule.parse("generated/");
+        assertTrue(dirOnly.matches("src/generated", true));
+        assertFalse(dirOnly.matches("src/generated", false));
+
+        final GitIgnore.Rule doubleStar = GitIgnore.Rule.parse("docs/**/*.html");
+        assertTrue(doubleStar.matches("docs/index.html", false));
+        assertTrue(doubleStar.matches("docs/a/b/index.html", false));
+        assertFalse(doubleStar.matches("src/docs/index.html", false));
+
+        assertTrue(GitIgnore.Rule.parse("file[0-9].txt").matches("file1.txt", false));
+        assertNull(GitIgnore.Rule.parse("# comment"));
+        assertNull(GitIgnore.Rule.parse("   "));
+    }
+
+    @Test
+    void walk(@TempDir Path root) throws IOException {
+        Files.createDirectories(root.resolve(".git/info"));
+        write(root.resolve(".git/info/exclude"), "*.tmp\n");
+        write(root.resolve(".gitignore"), "build/\n*.log\n!keep.log\n");
+        write(root.resolve("project/.gitignore"), "/generated\n");
+        for (String file : Arrays.asList("project/build.gradle", "project/a.log", "project/keep.log",
+                "project/x.tmp", "project/build/out.txt", "project/generated/Gen.java",
+                "project/src/generated/Gen.java", "project/src/App.java")) {
+            write(root.resolve(file), "");
+        }
+
+        final Path projectDir = root.resolve("project");
+        final GitIgnore gitIgnore = GitIgnore.find(projectDir);
+        assertTrue(gitIgnore.isIgnored("build", true));
+        assertTrue(gitIgnore.isIgnored("generated", true));
+        assertFalse(gitIgnore.isIgnored("src/generated", true));
+
+        final FileWalker walker = new FileWalker(Collections.<String> emptyList(), Collections.<String> emptyList(),
+                gitIgnore);
+        final List<String> actual = new ArrayList<>();
+        for (Path file : walker.walk(projectDir)) {
+            actual.add(projectDir.relativize(file).toString().replace('\\', '/'));
+        }
+        Collections.sort(actual);
+        /* .gitignore itself is one of Ant's default excludes */
+        assertEquals(Arrays.asList("build.gradle", "keep.log", "src/App.java", "src/generated/Gen.java"), actual);
+    }
+}
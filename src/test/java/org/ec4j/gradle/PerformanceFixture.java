@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2018 EditorConfig Gradle Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ec4j.gradle;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Generates a synthetic multi-project build for {@link EditorconfigPerformanceITest}: a root project applying the
+ * plugin to itself and to all subprojects, a root {@code .editorconfig}, a nested {@code .editorconfig} in each
+ * subproject and a deterministic set of source files.
+ *
+ * @author <a href="https://github.com/ppalaga">Peter Palaga</a>
+ */
+class PerformanceFixture {
+
+    /** Printed by the generated build when it finishes */
+    static final String PEAK_HEAP_PREFIX = "PEAK_HEAP_BYTES=";
+
+    private static final String[] EXTENSIONS = { "java", "txt", "md", "properties" };
+    private static final int FILES_PER_DIR = 100;
+    private static final String LINE = "    final String value = \"Lorem ipsum dolor sit amet\"; // filler";
+
+    /**
+     * Generates the build.
+     *
+     * @param root the directory to generate the build in; must not exist
+     * @param subprojectCount the number of subprojects
+     * @param filesPerSubproject the number of source files in each subproject
+     * @param fileSize the approximate size of each source file in bytes
+     * @param violationDensity the probability of a line having trailing whitespace
+     * @throws IOException on I/O problems
+     */
+    static void generate(Path root, int subprojectCount, int filesPerSubproject, int fileSize,
+            double violationDensity) throws IOException {
+        final Random random = new Random(42);
+        Files.createDirectories(root);
+        final StringBuilder settings = new StringBuilder("rootProject.name = 'performance'\n");
+        for (int i = 0; i < subprojectCount; i++) {
+            settings.append("include 'sub").append(i).append("'\n");
+        }
+        write(root.resolve("settings.gradle"), settings.toString());
+        write(root.resolve("gradle.properties"), "org.gradle.parallel = true\norg.gradle.jvmargs = -Xmx2g\n");
+        write(root.resolve("build.gradle"), "import java.lang.management.ManagementFactory\n" //
+                + "import java.lang.management.MemoryType\n" //
+                + "\n" //
+                + "plugins {\n" //
+                + "    id 'org.ec4j.editorconfig'\n" //
+                + "}\n" //
+                + "\n" //
+                + "subprojects {\n" //
+                + "    apply plugin: 'org.ec4j.editorconfig'\n" //
+                + "}\n" //
+                + "\n" //
+                + "/* The daemon is reused between builds, so we measure from here */\n" //
+                + "def heapPools = ManagementFactory.memoryPoolMXBeans.findAll { it.type == MemoryType.HEAP }\n" //
+                + "heapPools.each { it.resetPeakUsage() }\n" //
+                + "def reportPeakHeap = tasks.register('reportPeakHeap') {\n" //
+                + "    doLast {\n" //
+                + "        println '" + PEAK_HEAP_PREFIX + "' + heapPools.sum { it.peakUsage.used }\n" //
+                + "    }\n" //
+                + "}\n" //
+                + "allprojects {\n" //
+                + "    tasks.matching { it.name.startsWith('editorconfig') }.configureEach {\n" //
+                + "        finalizedBy reportPeakHeap\n" //
+                + "    }\n" //
+                + "}\n");
+        write(root.resolve(".editorconfig"), "root = true\n\n[*]\nend_of_line = lf\ntrim_trailing_whitespace = true\n"
+                + "insert_final_newline = true\nindent_style = space\nindent_size = 4\n");
+        write(root.resolve(".gitignore"), "build/\n.gradle/\n");
+
+        final StringBuilder content = new StringBuilder();
+        for (int s = 0; s < subprojectCount; s++) {
+            final Path subproject = root.resolve("sub" + s);
+            Files.createDirectories(subproject);
+            write(subproject.resolve(".editorconfig"), "[*.md]\nindent_size = 2\n");
+            for (int f = 0; f < filesPerSubproject; f++) {
+                final Path dir = subproject.resolve("src/main/dir" + (f / FILES_PER_DIR));
+                if (f % FILES_PER_DIR == 0) {
+                    Files.createDirectories(dir);
+                }
+                content.setLength(0);
+                while (content.length() < fileSize) {
+                    content.append(LINE);
+                    if (random.nextDouble() < violationDensity) {
+                        content.append("  ");
+                    }
+                    content.append('\n');
+                }
+                write(dir.resolve("file" + f + "." + EXTENSIONS[f % EXTENSIONS.length]), content.toString());
+            }
+        }
+    }
+
+    private static void write(Path file, String content) throws IOException {
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private PerformanceFixture() {
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2018 EditorConfig Gradle Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ec4j.gradle;
+
+import org.ec4j.gradle.runtime.EditorconfigInvoker;
+import org.ec4j.lint.api.Logger.LogLevel;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ResultSummaryTest {
+
+    private static Path writeChunk(Path dir, String name, int violations, int propertyMatchedFiles)
+            throws IOException {
+        final CollectingLogger log = new CollectingLogger(LogLevel.INFO);
+        log.info("Processing file '{}'", name);
+        for (int i = 1; i <= violations; i++) {
+            log.violation(LogLevel.ERROR, name, "org.ec4j.linters.TextLinter",
+                    "{}@{},1: Delete 1 character - violates trim_trailing_whitespace = true, reported by {}", name, i,
+                    "org.ec4j.linters.TextLinter");
+        }
+        /* Not a violation even though it looks like one */
+        log.error("{}@1,1: unparseable, reported by nobody", name);
+        log.count(EditorconfigInvoker.PROCESSED_FILES, 1);
+        log.count(EditorconfigInvoker.CHANGED_FILES, violations > 0 ? 1 : 0);
+        log.count(EditorconfigInvoker.PROPERTY_MATCHED_FILES, propertyMatchedFiles);
+        log.count(EditorconfigInvoker.VIOLATIONS, violations);
+        final Path result = dir.resolve(name + ".result");
+        log.write(result);
+        return result;
+    }
+
+    @Test
+    void capOverAllChunks(@TempDir Path tempDir) throws IOException {
+        final ResultSummary summary = new ResultSummary(3);
+        final List<String> messages = new ArrayList<>();
+        final CollectingLogger.MessageConsumer consumer = (level, message) -> messages.add(level + " " + message);
+        assertNull(summary.read(writeChunk(tempDir, "a.txt", 2, 1), consumer));
+        assertNull(summary.read(writeChunk(tempDir, "b.txt", 2, 1), consumer));
+        assertEquals(ResultSummary.VIOLATIONS_MESSAGE,
+                summary.summarize(true, true, true, Paths.get("/project"), consumer));
+        assertEquals(Arrays.asList( //
+                "INFO Processing file 'a.txt'", //
+                "ERROR a.txt@1,1: Delete 1 character - violates trim_trailing_whitespace = true,"
+                        + " reported by org.ec4j.linters.TextLinter", //
+                "ERROR a.txt@2,1: Delete 1 character - violates trim_trailing_whitespace = true,"
+                        + " reported by org.ec4j.linters.TextLinter", //
+                "ERROR a.txt@1,1: unparseable, reported by nobody", //
+                "INFO Processing file 'b.txt'", //
+                "ERROR b.txt@1,1: Delete 1 character - violates trim_trailing_whitespace = true,"
+                        + " reported by org.ec4j.linters.TextLinter", //
+                "ERROR b.txt@1,1: unparseable, reported by nobody", //
+                "ERROR 1 more violations were not reported individually because maxReportedViolations = 3", //
+                "ERROR     1 violations reported by org.ec4j.linters.TextLinter", //
+                "ERROR     b.txt: 1 violations", //
+                "INFO Checked 2 files"), messages);
+    }
+
+    @Test
+    void noMatchingProperties(@TempDir Path tempDir) throws IOException {
+        final ResultSummary summary = new ResultSummary(-1);
+        final List<String> messages = new ArrayList<>();
+        final CollectingLogger.MessageConsumer consumer = (level, message) -> messages.add(level + " " + message);
+        summary.read(writeChunk(tempDir, "a.txt", 0, 0), consumer);
+        summary.read(writeChunk(tempDir, "b.txt", 0, 0), consumer);
+        assertNull(summary.summarize(false, true, false, Paths.get("project"), consumer));
+        assertEquals(Arrays.asList( //
+                "INFO Processing file 'a.txt'", //
+                "ERROR a.txt@1,1: unparseable, reported by nobody", //
+                "INFO Processing file 'b.txt'", //
+                "ERROR b.txt@1,1: unparseable, reported by nobody", //
+                "INFO Rewrote 0 files", //
+                "WARN No .editorconfig properties applicable for files under 'project'", //
+                "INFO Formatted 0 out of 2 files"), messages);
+    }
+
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2018 EditorConfig Gradle Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ec4j.gradle.runtime;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BackupsTest {
+
+    @Test
+    void backUpAndReplace(@TempDir Path dir) throws IOException {
+        final Path file = dir.resolve("src/a.txt");
+        Files.createDirectories(file.getParent());
+        Files.write(file, "original".getBytes(StandardCharsets.UTF_8));
+        final Path set = Backups.newSet(dir.resolve("backups"));
+        assertFalse(Files.exists(set));
+
+        Backups.backUp(file, set, Paths.get("src/a.txt"));
+        replace(file, "formatted");
+        /* The second rewrite within the same set must not overwrite the backup of the original */
+        Backups.backUp(file, set, Paths.get("src/a.txt"));
+        replace(file, "formatted again");
+
+        assertEquals("original", new String(Files.readAllBytes(set.resolve("src/a.txt")), StandardCharsets.UTF_8));
+        assertEquals("formatted again", new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void prune(@TempDir Path dir) throws IOException {
+        final Path backups = dir.resolve("backups");
+        final Path oldest = Files.createDirectories(Backups.newSet(backups));
+        final Path middle = Files.createDirectories(Backups.newSet(backups));
+        assertNotEquals(oldest, middle);
+        final Path newest = Files.createDirectories(Backups.newSet(backups));
+        Backups.prune(backups, 2);
+        assertFalse(Files.exists(oldest));
+        assertTrue(Files.isDirectory(middle));
+        assertTrue(Files.isDirectory(newest));
+    }
+
+    private static void replace(Path file, String content) throws IOException {
+        final Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(tmp, content.getBytes(StandardCharsets.UTF_8));
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2018 EditorConfig Gradle Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ec4j.gradle.runtime;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BinaryFileDetectorTest {
+
+    private static Path write(Path dir, byte[] content) throws IOException {
+        final Path file = dir.resolve("file");
+        Files.write(file, content);
+        return file;
+    }
+
+    @Test
+    void text(@TempDir Path dir) throws IOException {
+        assertFalse(BinaryFileDetector.isBinary(write(dir, "caf\u00e9\n".getBytes(StandardCharsets.UTF_8)),
+                StandardCharsets.UTF_8));
+        assertFalse(BinaryFileDetector.isBinary(write(dir, new byte[0]), StandardCharsets.UTF_8));
+        assertFalse(BinaryFileDetector.isBinary(write(dir, "ab".getBytes(StandardCharsets.UTF_16LE)),
+                StandardCharsets.UTF_16LE));
+    }
+
+    @Test
+    void cutOffCharacter(@TempDir Path dir) throws IOException {
+        final byte[] content = new byte[BinaryFileDetector.SNIFF_LENGTH + 1];
+        Arrays.fill(content, (byte) 'a');
+        /* The first byte of the two byte UTF-8 sequence of U+00E9 is the last sniffed byte */
+        content[BinaryFileDetector.SNIFF_LENGTH - 1] = (byte) 0xc3;
+        content[BinaryFileDetector.SNIFF_LENGTH] = (byte) 0xa9;
+        assertFalse(BinaryFileDetector.isBinary(write(dir, content), StandardCharsets.UTF_8));
+        assertFalse(BinaryFileDetector.isBinary(content, content.length, StandardCharsets.UTF_8));
+        /* Cut off by the end of the content rather than by the end of the sniffed part */
+        assertTrue(BinaryFileDetector.isBinary(content, BinaryFileDetector.SNIFF_LENGTH, StandardCharsets.UTF_8));
+        assertTrue(BinaryFileDetector.isBinary(write(dir, Arrays.copyOf(content, BinaryFileDetector.SNIFF_LENGTH)),
+                StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void binary(@TempDir Path dir) throws IOException {
+        assertTrue(BinaryFileDetector.isBinary(write(dir, new byte[] { 'P', 'K', 3, 4, 0, 0 }),
+                StandardCharsets.UTF_8));
+        assertTrue(BinaryFileDetector.isBinary(write(dir, new byte[] { 'a', (byte) 0xff, 'b' }),
+                StandardCharsets.UTF_8));
+        assertFalse(BinaryFileDetector.isBinary(write(dir, new byte[] { 'a', (byte) 0xff, 'b' }),
+                StandardCharsets.ISO_8859_1));
+    }
+
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2018 EditorConfig Gradle Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ec4j.gradle.runtime;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LineScannerTest {
+
+    private static List<String> scan(Path dir, String content, String endOfLine, Boolean trim,
+            Boolean insertFinalNewline) throws IOException {
+        final Path file = dir.resolve("file.txt");
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        final List<String> result = new ArrayList<>();
+        LineScanner.scan(file, StandardCharsets.UTF_8, endOfLine, endOfLine == null ? null : "lf", trim,
+                insertFinalNewline, (line, column, message, property, value) -> result
+                        .add(line + "," + column + ": " + message + " - " + property + " = " + value));
+        return result;
+    }
+
+    @Test
+    void clean(@TempDir Path dir) throws IOException {
+        assertEquals(Collections.emptyList(), scan(dir, "a\n  b\n", "\n", true, true));
+        assertEquals(Collections.emptyList(), scan(dir, "", "\n", true, true));
+    }
+
+    @Test
+    void isClean(@TempDir Path dir) throws IOException {
+        final Path file = dir.resolve("file.txt");
+        Files.write(file, "\u017elu\u0165ou\u010dk\u00fd\n  x\n".getBytes(StandardCharsets.UTF_8));
+        assertTrue(LineScanner.isClean(file, StandardCharsets.UTF_8, "\n", true, true));
+        assertFalse(LineScanner.isClean(file, StandardCharsets.UTF_8, "\r\n", true, true));
+        assertFalse(LineScanner.isClean(file, StandardCharsets.UTF_8, "\n", true, false));
+        Files.write(file, "x \n".getBytes(StandardCharsets.UTF_8));
+        assertFalse(LineScanner.isClean(file, StandardCharsets.UTF_8, "\n", true, true));
+        assertTrue(LineScanner.isClean(file, StandardCharsets.UTF_8, "\n", false, true));
+        assertFalse(LineScanner.isClean(Files.readAllBytes(file), StandardCharsets.UTF_8, "\n", true, true));
+        assertTrue(LineScanner.isClean(Files.readAllBytes(file), StandardCharsets.UTF_8, "\n", false, true));
+        assertTrue(LineScanner.isClean(new byte[0], StandardCharsets.UTF_8, "\n", true, true));
+        /* Not ASCII compatible, hence never proven clean on the byte level */
+        Files.write(file, "x\n".getBytes(StandardCharsets.UTF_16LE));
+        assertFalse(LineScanner.isClean(file, StandardCharsets.UTF_16LE, "\n", true, true));
+    }
+
+    @Test
+    void endOfLine(@TempDir Path dir) throws IOException {
+        assertEquals(Arrays.asList("1,2: Replace '\\r\\n' with '\\n' - end_of_line = lf",
+                "2,3: Replace '\\r' with '\\n' - end_of_line = lf"), scan(dir, "a\r\nbb\rc\n", "\n", null, null));
+    }
+
+    @Test
+    void finalNewline(@TempDir Path dir) throws IOException {
+        assertEquals(Collections.singletonList("2,2: Insert '\\n' - insert_final_newline = true"),
+                scan(dir, "a\nb", null, null, true));
+        assertEquals(Collections.singletonList("2,2: Delete 1 character - insert_final_newline = false"),
+                scan(dir, "a\nb\n", null, null, false));
+    }
+
+    @Test
+    void trailingWhitespace(@TempDir Path dir) throws IOException {
+        assertEquals(Arrays.asList("1,4: Delete 2 characters - trim_trailing_whitespace = true",
+                "3,2: Delete 1 character - trim_trailing_whitespace = true"),
+                scan(dir, "new  \n x\ny\t", null, true, null));
+        assertEquals(Collections.singletonList("1,2: Delete 1 character - trim_trailing_whitespace = true"),
+                scan(dir, "x \n", null, true, null));
+    }
+
+    @Test
+    void multiByteAcrossBuffers(@TempDir Path dir) throws IOException {
+        final StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 100000; i++) {
+            content.append("\u017elu\u0165ou\u010dk\u00fd\n");
+        }
+        content.append("last ");
+        assertEquals(Collections.singletonList("100001,5: Delete 1 character - trim_trailing_whitespace = true"),
+                scan(dir, content.toString(), "\n", true, null));
+    }
+
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2018 EditorConfig Gradle Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ec4j.gradle.runtime;
+
+import org.ec4j.core.EditorConfigLoader;
+import org.ec4j.core.Resource;
+import org.ec4j.core.Resource.Resources;
+import org.ec4j.core.model.EditorConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class SharedEditorConfigCacheTest {
+
+    private static void write(Path file, String content, long ageMillis) throws IOException {
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() - ageMillis));
+    }
+
+    @Test
+    void reusedByLaterInvocations(@TempDir Path dir) throws IOException {
+        final Path file = dir.resolve(".editorconfig");
+        write(file, "root = true\n", 3_600_000L);
+        final Resource resource = Resources.ofPath(file, StandardCharsets.UTF_8);
+        final EditorConfigLoader loader = EditorConfigLoader.default_();
+
+        /* Each invocation of EditorconfigInvoker creates a new cache in the same class loader */
+        final EditorConfig first = new SharedEditorConfigCache().get(resource, loader);
+        /* Parsing again would produce a new instance */
+        assertSame(first, new SharedEditorConfigCache().get(resource, loader));
+
+        write(file, "root = true\n\n[*]\nindent_style = space\n", 1_800_000L);
+        final EditorConfig changed = new SharedEditorConfigCache().get(resource, loader);
+        assertNotSame(first, changed);
+        assertSame(changed, new SharedEditorConfigCache().get(resource, loader));
+    }
+
+    @Test
+    void recentlyModifiedComparedByContent(@TempDir Path dir) throws IOException {
+        final Path file = dir.resolve(".editorconfig");
+        /* Too recent to trust the size and the modification time alone */
+        write(file, "root = true\n", 0L);
+        final Resource resource = Resources.ofPath(file, StandardCharsets.UTF_8);
+        final EditorConfigLoader loader = EditorConfigLoader.default_();
+
+        final EditorConfig first = new SharedEditorConfigCache().get(resource, loader);
+        assertSame(first, new SharedEditorConfigCache().get(resource, loader));
+
+        /* Same size and modification time, different content */
+        final FileTime lastModified = Files.getLastModifiedTime(file);
+        Files.write(file, "root = TRUE\n".getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(file, lastModified);
+        assertNotSame(first, new SharedEditorConfigCache().get(resource, loader));
+    }
+
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2018 EditorConfig Gradle Plugin
+ * project contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ec4j.gradle.runtime;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TimingsTest {
+
+    @Test
+    void slowestFiles() {
+        final Timings timings = new Timings();
+        for (int i = 0; i < Timings.SLOWEST_FILE_COUNT * 2; i++) {
+            timings.addFile("file" + i, i);
+        }
+        final List<Map.Entry<String, Long>> slowest = timings.getSlowestFiles();
+        assertEquals(Timings.SLOWEST_FILE_COUNT, slowest.size());
+        assertEquals("file" + (Timings.SLOWEST_FILE_COUNT * 2 - 1), slowest.get(0).getKey());
+        assertEquals("file" + Timings.SLOWEST_FILE_COUNT, slowest.get(slowest.size() - 1).getKey());
+    }
+
+    @Test
+    void writeReadMerge(@TempDir Path dir) throws IOException {
+        final Timings chunk0 = new Timings();
+        chunk0.addPhase(Timings.PROPERTIES, 2_000_000_000L);
+        chunk0.addLinter("org.ec4j.linters.XmlLinter", 3_000_000_000L);
+        chunk0.addFile("pom.xml", 5_000_000_000L);
+        chunk0.addPasses("pom.xml", 3, false);
+        final Timings chunk1 = new Timings();
+        chunk1.addPhase(Timings.PROPERTIES, 1_000_000_000L);
+        chunk1.addFile("a \"quoted\" name.txt", 1_000_000_000L);
+        chunk1.addPasses("a \"quoted\" name.txt", 1, true);
+        chunk0.write(dir.resolve("timings.0"));
+        chunk1.write(dir.resolve("timings.1"));
+
+        final Timings merged = new Timings();
+        merged.addPhase(Timings.SCAN, 500_000_000L);
+        merged.addAll(Timings.read(dir.resolve("timings.0")));
+        merged.addAll(Timings.read(dir.resolve("timings.1")));
+
+        assertEquals("Processed 2 files in 7.000 s: properties 3.000 s, XmlLinter 3.000 s, scan 0.500 s;"
+                + " slowest file 'pom.xml' 5.000 s", merged.summary(7_000_000_000L));
+
+        final Path json = dir.resolve("timings.json");
+        merged.writeJson(json, "editorconfigCheck", 7_000_000_000L);
+        assertEquals("{\n" //
+                + "  \"task\": \"editorconfigCheck\",\n" //
+                + "  \"wallNanos\": 7000000000,\n" //
+                + "  \"fileCount\": 2,\n" //
+                + "  \"phases\": {\n" //
+                + "    \"lint\": { \"nanos\": 3000000000, \"count\": 1 },\n" //
+                + "    \"properties\": { \"nanos\": 3000000000, \"count\": 2 },\n" //
+                + "    \"scan\": { \"nanos\": 500000000, \"count\": 1 }\n" //
+                + "  },\n" //
+                + "  \"linters\": {\n" //
+                + "    \"org.ec4j.linters.XmlLinter\": { \"nanos\": 3000000000, \"count\": 1 }\n" //
+                + "  },\n" //
+                + "  \"slowestFiles\": [\n" //
+                + "    { \"file\": \"pom.xml\", \"nanos\": 5000000000 },\n" //
+                + "    { \"file\": \"a \\\"quoted\\\" name.txt\", \"nanos\": 1000000000 }\n" //
+                + "  ],\n" //
+                + "  \"formatPasses\": {\n" //
+                + "    \"1\": 1,\n" //
+                + "    \"3\": 1\n" //
+                + "  },\n" //
+                + "  \"unsettledFiles\": [\n" //
+                + "    \"pom.xml\"\n" //
+                + "  ]\n" //
+                + "}\n", new String(Files.readAllBytes(json), StandardCharsets.UTF_8));
+        assertEquals(Collections.singletonList("pom.xml"), merged.getUnsettledFiles());
+    }
+
+}